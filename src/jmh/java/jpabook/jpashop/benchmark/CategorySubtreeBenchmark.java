@@ -0,0 +1,144 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 하위 카테고리까지 포함한 상품 목록 첫 페이지 조회
+ * - recursive: Category.child를 따라 내려가면서 Category.items를 모두 읽고 메모리에서 정렬 (노드마다 쿼리)
+ * - closure: category_closure + category_item 인덱스 조인 쿼리 1번 (CategoryRepository.findItemsInSubtree)
+ * - 6단계, 노드마다 자식 6개 = 카테고리 9,331개 (DatasetGenerator), 상품은 리프 카테고리에 연결
+ * - subtreeDepth: 조회 시작 카테고리의 깊이 (0이면 root = 전체 트리, 4면 자식 36개짜리 하위 트리)
+ *
+ * 2차 캐시를 끄고 측정한다. (조회 1번당 실행된 SQL 수 = statements / invocations)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CategorySubtreeBenchmark {
+
+    @Param({"0", "2", "4"})
+    public int subtreeDepth;
+
+    @Param({"100000"})
+    public int items;
+
+    @Param({"20"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private CategoryRepository categoryRepository;
+    private EntityManager em;
+    private TransactionTemplate readOnlyTx;
+    private Statistics statistics;
+    private Long categoryId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dataset")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:category-benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "jpashop.dataset.items=" + items,
+                        "jpashop.dataset.orders=1000",
+                        "jpashop.dataset.category-depth=6",
+                        "jpashop.dataset.category-fanout=6",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.jpabook.jpashop=warn")
+                .run();
+
+        categoryRepository = context.getBean(CategoryRepository.class);
+        em = context.getBean(EntityManager.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        categoryId = context.getBean(JdbcTemplate.class).queryForObject(
+                "select min(descendant_id) from category_closure where ancestor_id = 1 and depth = ?", Long.class, subtreeDepth);
+
+        // 두 방식의 결과가 같은지 확인
+        List<Long> expected = readOnlyTx.execute(status -> recursive());
+        List<Long> actual = readOnlyTx.execute(status -> closure().stream().map(ItemQueryDto::getId).toList());
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("결과가 다릅니다. recursive=" + expected + ", closure=" + actual);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long invocations;
+    }
+
+    @Benchmark
+    public void recursive(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, this::recursive));
+    }
+
+    @Benchmark
+    public void closure(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, this::closure));
+    }
+
+    // 기존 방식: 하위 카테고리를 하나씩 로딩하면서 상품 id를 모으고, 정렬 후 첫 페이지
+    private List<Long> recursive() {
+        TreeSet<Long> itemIds = new TreeSet<>();
+        Deque<Category> stack = new ArrayDeque<>();
+        stack.push(em.find(Category.class, categoryId));
+        while (!stack.isEmpty()) {
+            Category category = stack.pop();
+            for (Item item : category.getItems()) {
+                itemIds.add(item.getId());
+            }
+            category.getChild().forEach(stack::push);
+        }
+        return itemIds.stream().limit(limit).toList();
+    }
+
+    private List<ItemQueryDto> closure() {
+        return categoryRepository.findItemsInSubtree(categoryId, null, limit);
+    }
+
+    private <T> T measure(SqlCounter counter, Supplier<T> query) {
+        long before = statistics.getPrepareStatementCount();
+        T result = readOnlyTx.execute(status -> query.get());
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.invocations++;
+        return result;
+    }
+}
@@ -0,0 +1,189 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.JpashopApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 플랫폼 스레드(Tomcat 200개) vs 가상 스레드(virtual 프로필) HTTP 부하 비교
+ * - GET /api/v5/orders (조회), POST /order (주문 폼 제출)
+ * - 동시 클라이언트 50 / 500 / 5,000 (클라이언트마다 응답을 받으면 바로 다음 요청을 보냄)
+ * - 처리량(req/s), p50/p99 지연 시간, 실패 수
+ *
+ * 실행: ./gradlew loadTest -PruntimeJava=21
+ * 옵션: -PloadTest.args="<측정 초> <동시 클라이언트,...>" (기본 20초, 50,500,5000)
+ * JDK 21 미만에서는 가상 스레드 모드를 건너뛴다.
+ * JMH와 달리 서버와 클라이언트가 같은 JVM에서 CPU를 나눠 쓰므로 절대값보다는 두 모드의 차이를 본다.
+ * 두 모드 모두 커넥션 풀은 20개로 같게 맞추고, 주문 조회 캐시는 끈다. (매 요청 DB 조회)
+ */
+public class HttpLoadBenchmark {
+
+    private static final int POOL_SIZE = 20;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final int MAX_SAMPLES = 5_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Duration duration = Duration.ofSeconds(args.length > 0 ? Integer.parseInt(args[0]) : 20);
+        int[] clients = args.length > 1
+                ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{50, 500, 5000};
+
+        List<String> modes = new ArrayList<>(List.of("platform"));
+        if (Runtime.version().feature() >= 21) {
+            modes.add("virtual");
+        } else {
+            System.out.println("JDK " + Runtime.version().feature() + ": 가상 스레드 모드는 JDK 21 이상에서만 측정 (-PruntimeJava=21)");
+        }
+
+        System.out.printf("%-9s %-16s %8s %12s %10s %10s %8s%n", "mode", "endpoint", "clients", "req/s", "p50(ms)", "p99(ms)", "errors");
+        for (String mode : modes) {
+            try (ConfigurableApplicationContext context = start(mode)) {
+                Target target = prepare(context);
+                for (int clientCount : clients) {
+                    report(mode, "GET v5/orders", clientCount, run(target.ordersV5(), clientCount, duration));
+                    report(mode, "POST /order", clientCount, run(target.orderForm(), clientCount, duration));
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(JpashopApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "jpashop.order-cache.maximum-size=0",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.jpabook.jpashop=warn");
+        if (mode.equals("virtual")) {
+            builder.profiles("virtual");
+        }
+        return builder.run();
+    }
+
+    // InitDb가 만든 회원/상품으로 주문, 주문 중 재고가 바닥나지 않도록 재고를 넉넉히
+    private static Target prepare(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("update item set stock_quantity = 1000000000");
+        context.getBean(EntityManagerFactory.class).getCache().evictAll();
+
+        Long memberId = jdbcTemplate.queryForObject("select min(member_id) from member", Long.class);
+        Long itemId = jdbcTemplate.queryForObject("select min(item_id) from item", Long.class);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return new Target("http://localhost:" + port, memberId, itemId);
+    }
+
+    private record Target(String baseUrl, Long memberId, Long itemId) {
+
+        HttpRequest ordersV5() {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v5/orders")).GET().build();
+        }
+
+        HttpRequest orderForm() {
+            String form = "memberId=" + memberId + "&itemId=" + itemId + "&count=1";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/order"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form))
+                    .build();
+        }
+    }
+
+    private static Result run(HttpRequest request, int clientCount, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        run(client, request, clientCount, WARMUP, new Result());
+        Result result = new Result();
+        run(client, request, clientCount, duration, result);
+        return result;
+    }
+
+    // 클라이언트 수만큼 요청을 동시에 보내고, 응답이 오면 종료 시각 전까지 다음 요청을 이어서 보낸다.
+    private static void run(HttpClient client, HttpRequest request, int clientCount, Duration duration, Result result) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<CompletableFuture<Void>> loops = new ArrayList<>(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            send(client, request, deadline, result, done);
+            loops.add(done);
+        }
+        CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).get();
+        result.elapsedNanos = duration.toNanos();
+    }
+
+    private static void send(HttpClient client, HttpRequest request, long deadline, Result result, CompletableFuture<Void> done) {
+        if (System.nanoTime() >= deadline) {
+            done.complete(null);
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    // 주문 폼은 성공하면 302 redirect
+                    boolean ok = e == null && response.statusCode() < 400;
+                    result.record(System.nanoTime() - start, ok);
+                    send(client, request, deadline, result, done);
+                });
+    }
+
+    private static void report(String mode, String endpoint, int clientCount, Result result) {
+        System.out.printf("%-9s %-16s %8d %12.1f %10.2f %10.2f %8d%n", mode, endpoint, clientCount,
+                result.throughput(), result.percentileMillis(50), result.percentileMillis(99), result.errors.get());
+    }
+
+    static class Result {
+
+        private final long[] latencies = new long[MAX_SAMPLES];
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private long elapsedNanos;
+
+        void record(long latencyNanos, boolean ok) {
+            if (!ok) {
+                errors.incrementAndGet();
+                return;
+            }
+            completed.incrementAndGet();
+            int index = count.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = latencyNanos;
+            }
+        }
+
+        double throughput() {
+            return completed.get() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double percentileMillis(int percentile) {
+            int size = Math.min(count.get(), latencies.length);
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
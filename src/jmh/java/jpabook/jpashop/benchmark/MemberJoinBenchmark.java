@@ -0,0 +1,73 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameFilter;
+import jpabook.jpashop.service.MemberService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 가입 처리량: 중복 이름 Bloom filter 사용 vs 미사용
+ * - 기존 회원 members명(DatasetGenerator)이 있는 상태에서 매번 새 이름으로 가입
+ * - filter=true: 필터에 없는 이름은 findByName 조회 생략 / filter=false: 매번 findByName
+ * 측정이 끝나면 필터 통계(DB 조회 생략 수, 실제/이론 오탐률)를 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MemberJoinBenchmark {
+
+    @Param({"true", "false"})
+    public boolean filter;
+
+    @Param({"100000", "1000000"})
+    public int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dataset")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:member-join;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "jpashop.dataset.members=" + members,
+                        "jpashop.dataset.items=100",
+                        "jpashop.dataset.orders=1000",
+                        "jpashop.member-filter.enabled=" + filter,
+                        "jpashop.member-filter.expected-members=" + members * 2,
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.jpabook.jpashop=warn")
+                .run();
+        memberService = context.getBean(MemberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println("member name filter: " + context.getBean(MemberNameFilter.class).stats());
+        context.close();
+    }
+
+    @Benchmark
+    public Long join() {
+        Member member = new Member();
+        member.setName("join" + sequence.incrementAndGet());
+        return memberService.join(member);
+    }
+}
@@ -0,0 +1,150 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 주문 조회 방식(V1 ~ V6)별 성능 비교
+ * - 처리량(ops/s), 할당량(gc 프로파일러: gc.alloc.rate.norm), 조회 1번당 실행된 SQL 수(statements / invocations)
+ * - 임베디드 H2(메모리)에 DatasetGenerator로 orders 개수만큼 주문을 만들고 (주문당 주문상품 1 ~ maxItemsPerOrder개) 측정
+ *
+ * 주의: findOrderQueryDtos(V4)는 주문 수만큼 쿼리가 나가므로(N + 1) 주문이 많으면 매우 느리다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class OrderQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int orders;
+
+    @Param({"20"})
+    public int maxItemsPerOrder;
+
+    @Param({"100"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private OrderQueryRepository orderQueryRepository;
+    private TransactionTemplate readOnlyTx;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dataset") // DatasetGenerator로 데이터 생성
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "jpashop.dataset.orders=" + orders,
+                        "jpashop.dataset.max-items-per-order=" + maxItemsPerOrder,
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.jpabook.jpashop=warn")
+                .run();
+
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 조회 1번당 SQL 수 = statements / invocations
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long invocations;
+    }
+
+    // V3: 컬렉션 fetch join (메모리 페이징)
+    @Benchmark
+    public void v3_findAllWithItem(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> touch(orderRepository.findAllWithItem())));
+    }
+
+    // V3.1: xToOne fetch join + 컬렉션 batch fetch, 중간 페이지 조회
+    @Benchmark
+    public void v3_1_findAllWithMemberDelivery_page(SqlCounter counter, Blackhole bh) {
+        int offset = orders / 2;
+        bh.consume(measure(counter, () -> touch(orderRepository.findAllWithMemberDelivery(offset, limit))));
+    }
+
+    // V4: DTO 직접 조회 (N + 1)
+    @Benchmark
+    public void v4_findOrderQueryDtos(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> orderQueryRepository.findOrderQueryDtos()));
+    }
+
+    // V5: DTO 직접 조회 + 컬렉션 in 쿼리
+    @Benchmark
+    public void v5_findAllByDto_optimization(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> orderQueryRepository.findAllByDto_optimization()));
+    }
+
+    // V6: 플랫 조회 (조립 없이)
+    @Benchmark
+    public void v6_findAllByDto_flat(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> orderQueryRepository.findAllByDto_flat()));
+    }
+
+    // V6: 플랫 조회 + OrderFlatAssembler 조립
+    @Benchmark
+    public void v6_assemble(SqlCounter counter, Blackhole bh) {
+        bh.consume(measure(counter, () -> OrderFlatAssembler.assemble(orderQueryRepository.findAllByDto_flat())));
+    }
+
+    // 요청 1번 = 읽기 전용 트랜잭션 1번으로 보고 실행된 SQL 수를 센다.
+    private <T> T measure(SqlCounter counter, Supplier<T> query) {
+        long before = statistics.getPrepareStatementCount();
+        T result = readOnlyTx.execute(status -> query.get());
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.invocations++;
+        return result;
+    }
+
+    // API에서 DTO로 변환할 때처럼 지연 로딩을 강제로 초기화
+    private static int touch(List<Order> orders) {
+        int hash = 0;
+        for (Order order : orders) {
+            hash += order.getMember().getName().hashCode();
+            hash += order.getDelivery().getAddress().hashCode();
+            for (OrderItem orderItem : order.getOrderItems()) {
+                hash += orderItem.getItem().getName().hashCode();
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,159 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.Exception.NotEnoughStockException;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 인기 상품 1개에 64개 스레드가 동시에 주문할 때 재고 감소 방식별 처리량과 정합성
+ * - atomic: 조건부 update 1번 (ItemRepository.decreaseStock)
+ * - optimistic: 재고 조회 후 "조회한 값일 때만" update, 실패하면 다시 조회해서 재시도 (@Version 낙관적 락과 같은 방식)
+ * - order_atomic: OrderService.order 전체 (주문, 배송, 요약 insert 포함)
+ *
+ * 처리량(ops/s) 중 성공한 주문 수는 보조 카운터 ordered, 재고 소진으로 거절된 수는 rejected, 낙관적 락 충돌 재시도는 retries.
+ * 매 iteration이 끝나면 "초기 재고 - 성공한 주문 수 = 남은 재고 >= 0"인지 확인하고, 어긋나면 예외로 실패시킨다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class StockDecrementBenchmark {
+
+    // 측정 중간에 재고가 바닥나도록 잡아서 재고 0 근처의 경합도 같이 본다.
+    @Param({"200000"})
+    public int stock;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private OrderService orderService;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate tx;
+    private Long memberId;
+    private Long itemId;
+
+    private final AtomicLong sold = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "spring.datasource.hikari.maximum-pool-size=64",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "logging.level.jpabook.jpashop=warn")
+                .run();
+
+        itemRepository = context.getBean(ItemRepository.class);
+        orderService = context.getBean(OrderService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Member member = new Member();
+        member.setName("benchmark");
+        member.setAddress(new Address("서울", "어딘가", "123123"));
+        memberId = context.getBean(MemberService.class).join(member);
+
+        Book book = new Book();
+        book.setName("hot item");
+        book.setPrice(10000);
+        book.setStockQuantity(stock);
+        context.getBean(ItemService.class).saveItem(book);
+        itemId = book.getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStock() {
+        jdbcTemplate.update("update item set stock_quantity = ? where item_id = ?", stock, itemId);
+        sold.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyStock() {
+        int remaining = jdbcTemplate.queryForObject("select stock_quantity from item where item_id = ?", Integer.class, itemId);
+        if (remaining < 0 || remaining != stock - sold.get()) {
+            throw new IllegalStateException("재고 불일치: 초기 " + stock + ", 판매 " + sold.get() + ", 남은 재고 " + remaining);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StockCounter {
+        public long ordered;
+        public long rejected;
+        public long retries;
+    }
+
+    @Benchmark
+    public void atomic(StockCounter counter) {
+        try {
+            tx.executeWithoutResult(status -> itemRepository.decreaseStock(itemId, 1));
+            sold.incrementAndGet();
+            counter.ordered++;
+        } catch (NotEnoughStockException e) {
+            counter.rejected++;
+        }
+    }
+
+    @Benchmark
+    public void optimistic(StockCounter counter) {
+        while (true) {
+            Boolean decreased = tx.execute(status -> {
+                int current = jdbcTemplate.queryForObject("select stock_quantity from item where item_id = ?", Integer.class, itemId);
+                if (current < 1) {
+                    return null; // 재고 소진
+                }
+                // where 조건의 stock_quantity가 버전 역할: 그 사이 다른 트랜잭션이 바꿨으면 0건
+                return jdbcTemplate.update("update item set stock_quantity = ? where item_id = ? and stock_quantity = ?",
+                        current - 1, itemId, current) == 1;
+            });
+            if (decreased == null) {
+                counter.rejected++;
+                return;
+            }
+            if (decreased) {
+                sold.incrementAndGet();
+                counter.ordered++;
+                return;
+            }
+            counter.retries++;
+        }
+    }
+
+    @Benchmark
+    public void order_atomic(StockCounter counter) {
+        try {
+            orderService.order(memberId, itemId, 1);
+            sold.incrementAndGet();
+            counter.ordered++;
+        } catch (NotEnoughStockException e) {
+            counter.rejected++;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package jpabook.jpashop;
+
+import jakarta.annotation.PostConstruct;
+import jpabook.jpashop.service.OrderSummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 대용량 테스트 데이터 생성 (dataset 프로필에서만 동작, InitDb 대신 사용)
+ * 회원 N명, 상품 M개(Book/Album/Movie), 카테고리 트리, 주문 K건을 JDBC batch insert로 만든다.
+ * - 상품 인기도는 Zipf 분포 (소수의 상품에 주문이 몰림)
+ * - 주문은 writers 개의 구간으로 나눠 동시에 insert
+ * - seed가 같으면 항상 같은 데이터가 만들어진다.
+ *
+ * 실행: --spring.profiles.active=dataset --jpashop.dataset.orders=1000000
+ */
+@Slf4j
+@Component
+@Profile("dataset")
+@DependsOn("entityManagerFactory") // 테이블(ddl-auto) 생성 후에 실행
+public class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String[] DTYPES = {"B", "A", "M"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderSummaryService orderSummaryService;
+
+    private final int members;
+    private final int items;
+    private final int orders;
+    private final int maxItemsPerOrder;
+    private final int categoryDepth;
+    private final int categoryFanout;
+    private final double zipfExponent;
+    private final long seed;
+    private final int writers;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate,
+                            OrderSummaryService orderSummaryService,
+                            @Value("${jpashop.dataset.members:100000}") int members,
+                            @Value("${jpashop.dataset.items:10000}") int items,
+                            @Value("${jpashop.dataset.orders:1000000}") int orders,
+                            @Value("${jpashop.dataset.max-items-per-order:5}") int maxItemsPerOrder,
+                            @Value("${jpashop.dataset.category-depth:3}") int categoryDepth,
+                            @Value("${jpashop.dataset.category-fanout:5}") int categoryFanout,
+                            @Value("${jpashop.dataset.zipf-exponent:1.0}") double zipfExponent,
+                            @Value("${jpashop.dataset.seed:42}") long seed,
+                            @Value("${jpashop.dataset.writers:4}") int writers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderSummaryService = orderSummaryService;
+        this.members = members;
+        this.items = items;
+        this.orders = orders;
+        this.maxItemsPerOrder = maxItemsPerOrder;
+        this.categoryDepth = categoryDepth;
+        this.categoryFanout = categoryFanout;
+        this.zipfExponent = zipfExponent;
+        this.seed = seed;
+        this.writers = writers;
+    }
+
+    @PostConstruct
+    public void generate() throws Exception {
+        long start = System.currentTimeMillis();
+
+        insertMembers();
+        int[] prices = insertItems();
+        int categories = insertCategories();
+        long orderItems = insertOrders(prices);
+        restartSequences();
+        orderSummaryService.rebuild();
+
+        log.info("dataset generated: members={}, items={}, categories={}, orders={}, orderItems={}, {}ms",
+                members, items, categories, orders, orderItems, System.currentTimeMillis() - start);
+    }
+
+    // 회원 --------------------------------------
+    private void insertMembers() {
+        BatchWriter writer = new BatchWriter("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)");
+        for (long id = 1; id <= members; id++) {
+            writer.add(id, "member" + id, city(id), street(id), zipcode(id));
+        }
+        writer.flush();
+    }
+
+    // 상품 (Book, Album, Movie 골고루) --------------------------------------
+    private int[] insertItems() {
+        Random random = new Random(seed);
+        int[] prices = new int[items + 1];
+
+        BatchWriter writer = new BatchWriter("insert into item (dtype, item_id, name, price, stock_quantity," +
+                " author, isbn, artist, etc, director, actor) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        for (int id = 1; id <= items; id++) {
+            String dtype = DTYPES[id % DTYPES.length];
+            prices[id] = (1 + random.nextInt(100)) * 1000;
+            int stock = 1_000_000 + random.nextInt(1000);
+            switch (dtype) {
+                case "B" -> writer.add(dtype, id, "book" + id, prices[id], stock, "author" + id % 500, "isbn" + id, null, null, null, null);
+                case "A" -> writer.add(dtype, id, "album" + id, prices[id], stock, null, null, "artist" + id % 500, null, null, null);
+                default -> writer.add(dtype, id, "movie" + id, prices[id], stock, null, null, null, null, "director" + id % 500, "actor" + id % 500);
+            }
+        }
+        writer.flush();
+        return prices;
+    }
+
+    // 카테고리 트리 (depth 단계, 노드마다 자식 fanout개), 상품은 리프 카테고리에 하나씩 연결 --------------------------------------
+    private int insertCategories() {
+        BatchWriter categoryWriter = new BatchWriter("insert into category (category_id, name, parent_id) values (?, ?, ?)");
+        BatchWriter closureWriter = new BatchWriter("insert into category_closure (ancestor_id, descendant_id, depth) values (?, ?, ?)");
+        List<Long> parents = new ArrayList<>(); // parents.get(id - 1) = 부모 id (closure 생성용)
+        List<Long> level = new ArrayList<>();
+        long nextId = 1;
+
+        categoryWriter.add(nextId, "root", null);
+        parents.add(null);
+        level.add(nextId++);
+        for (int depth = 1; depth < categoryDepth; depth++) {
+            List<Long> children = new ArrayList<>();
+            for (Long parentId : level) {
+                for (int i = 0; i < categoryFanout; i++) {
+                    categoryWriter.add(nextId, "category" + nextId, parentId);
+                    parents.add(parentId);
+                    children.add(nextId++);
+                }
+            }
+            level = children;
+        }
+        categoryWriter.flush();
+
+        // closure: 카테고리마다 자기 자신부터 root까지 조상 row
+        for (long id = 1; id < nextId; id++) {
+            int distance = 0;
+            for (Long ancestor = id; ancestor != null; ancestor = parents.get((int) (ancestor - 1))) {
+                closureWriter.add(ancestor, id, distance++);
+            }
+        }
+        closureWriter.flush();
+
+        BatchWriter categoryItemWriter = new BatchWriter("insert into category_item (category_id, item_id) values (?, ?)");
+        for (int itemId = 1; itemId <= items; itemId++) {
+            categoryItemWriter.add(level.get(itemId % level.size()), itemId);
+        }
+        categoryItemWriter.flush();
+        return (int) (nextId - 1);
+    }
+
+    // 주문 (writers 개 구간으로 나눠 동시에) --------------------------------------
+    private long insertOrders(int[] prices) throws Exception {
+        ZipfSampler itemSampler = new ZipfSampler(items, zipfExponent);
+        int partitionSize = (orders + writers - 1) / writers;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int p = 0; p < writers; p++) {
+                long from = (long) p * partitionSize + 1;
+                long to = Math.min((long) (p + 1) * partitionSize, orders);
+                // 구간마다 seed를 고정하므로 스레드 실행 순서와 상관없이 같은 데이터가 만들어진다.
+                Random random = new Random(seed + p + 1);
+                long firstOrderItemId = (from - 1) * maxItemsPerOrder + 1;
+                futures.add(executor.submit(() -> insertOrderPartition(from, to, firstOrderItemId, random, itemSampler, prices)));
+            }
+
+            long orderItems = 0;
+            for (Future<Long> future : futures) {
+                orderItems += future.get();
+            }
+            return orderItems;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long insertOrderPartition(long from, long to, long firstOrderItemId,
+                                      Random random, ZipfSampler itemSampler, int[] prices) {
+        BatchWriter deliveries = new BatchWriter("insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)", false);
+        BatchWriter orderRows = new BatchWriter("insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)", false);
+        BatchWriter orderItems = new BatchWriter("insert into order_item (order_item_id, order_id, item_id, order_price, count) values (?, ?, ?, ?, ?)", false);
+
+        long orderItemId = firstOrderItemId;
+        long count = 0;
+        for (long orderId = from; orderId <= to; orderId++) {
+            long memberId = 1 + random.nextInt(members);
+            deliveries.add(orderId, city(memberId), street(memberId), zipcode(memberId), "READY");
+            orderRows.add(orderId, memberId, orderId, Timestamp.valueOf(BASE_DATE.plusMinutes(orderId)), "ORDER");
+
+            int itemCount = 1 + random.nextInt(maxItemsPerOrder);
+            for (int i = 0; i < itemCount; i++) {
+                int itemId = itemSampler.sample(random);
+                orderItems.add(orderItemId++, orderId, itemId, prices[itemId], 1 + random.nextInt(3));
+                count++;
+            }
+
+            // FK 순서대로 (배송 -> 주문 -> 주문상품) 같이 내보낸다.
+            if (orderRows.size() >= BATCH_SIZE) {
+                deliveries.flush();
+                orderRows.flush();
+                orderItems.flush();
+            }
+        }
+        deliveries.flush();
+        orderRows.flush();
+        orderItems.flush();
+        return count;
+    }
+
+    // id를 직접 넣었으므로 이후 JPA에서 만드는 id와 겹치지 않도록 모든 시퀀스를 생성한 id 뒤로 옮긴다.
+    // (pooled 최적화는 시퀀스 값 아래로 allocationSize만큼 id를 쓰므로 여유를 둔다.)
+    private void restartSequences() {
+        long maxId = Math.max(Math.max(members, items), (long) orders * maxItemsPerOrder);
+        long restartWith = maxId + 10_000;
+        List<String> sequences = jdbcTemplate.queryForList(
+                "select sequence_name from information_schema.sequences where sequence_schema = current_schema", String.class);
+        for (String sequence : sequences) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + restartWith);
+        }
+    }
+
+    private static String city(long memberId) {
+        return "city" + memberId % 100;
+    }
+
+    private static String street(long memberId) {
+        return "street" + memberId % 1000;
+    }
+
+    private static String zipcode(long memberId) {
+        return String.valueOf(10000 + memberId % 90000);
+    }
+
+    /**
+     * Zipf 분포 샘플러: k번째 상품이 선택될 확률 ∝ 1 / k^s
+     */
+    static class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1.0 / Math.pow(k, exponent);
+                cumulative[k - 1] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        // 1 ~ n
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1;
+        }
+    }
+
+    /**
+     * BATCH_SIZE 만큼 모아서 jdbcTemplate.batchUpdate
+     * autoFlush가 false면 호출하는 쪽에서 flush 시점을 정한다. (FK 순서를 맞춰야 하는 주문 테이블들)
+     */
+    private class BatchWriter {
+
+        private final String sql;
+        private final boolean autoFlush;
+        private List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        BatchWriter(String sql) {
+            this(sql, true);
+        }
+
+        BatchWriter(String sql, boolean autoFlush) {
+            this.sql = sql;
+            this.autoFlush = autoFlush;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (autoFlush && rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+}
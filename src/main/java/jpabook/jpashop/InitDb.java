@@ -5,6 +5,7 @@ import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
  * 	 * SPRING2 BOOK
  */
 @Component
+@Profile("!dataset") // 대용량 데이터는 DatasetGenerator 사용
 @RequiredArgsConstructor
 public class InitDb {
 
@@ -2,7 +2,13 @@ package jpabook.jpashop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
 
 @SpringBootApplication
 public class JpashopApplication {
@@ -10,5 +16,17 @@ public class JpashopApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(JpashopApplication.class, args);
 	}
-	
+
+	// 비동기 주문 접수(OrderIntakeService) worker 스레드
+	// spring.threads.virtual.enabled=true이고 JDK 21 이상이면 가상 스레드, 아니면 daemon 플랫폼 스레드
+	@Bean
+	public ThreadFactory orderIntakeThreadFactory(Environment environment) {
+		if (Threading.VIRTUAL.isActive(environment)) {
+			return new VirtualThreadTaskExecutor("order-intake-").getVirtualThreadFactory();
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-intake-");
+		threadFactory.setDaemon(true);
+		return threadFactory;
+	}
+
 }
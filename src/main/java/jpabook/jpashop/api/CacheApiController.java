@@ -0,0 +1,60 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.service.OrderReadCache;
+import jpabook.jpashop.service.ReferenceDataCache;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 캐시 통계 조회
+@RestController
+@RequiredArgsConstructor
+public class CacheApiController {
+
+    private final OrderReadCache orderReadCache;
+    private final ReferenceDataCache referenceDataCache;
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/api/cache/orders/stats")
+    public Map<String, Object> orderCacheStats() {
+        return orderReadCache.stats();
+    }
+
+    // 주문용 회원/상품 near cache
+    @GetMapping("/api/cache/reference/stats")
+    public Map<String, Object> referenceCacheStats() {
+        return referenceDataCache.stats();
+    }
+
+    // hibernate 2차 캐시 region별 hit/miss (hibernate.generate_statistics: true 필요)
+    @GetMapping("/api/cache/regions/stats")
+    public Map<String, Object> secondLevelCacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            long hit = region.getHitCount();
+            long miss = region.getMissCount();
+
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hitCount", hit);
+            regionStats.put("missCount", miss);
+            regionStats.put("putCount", region.getPutCount());
+            regionStats.put("hitRatio", hit + miss == 0 ? 0.0 : (double) hit / (hit + miss));
+            regions.put(regionName, regionStats);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("prepareStatementCount", statistics.getPrepareStatementCount());
+        result.put("regions", regions);
+        return result;
+    }
+}
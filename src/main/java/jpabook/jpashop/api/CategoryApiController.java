@@ -0,0 +1,153 @@
+package jpabook.jpashop.api;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import jpabook.jpashop.service.CategoryRollupService;
+import jpabook.jpashop.service.CategoryRollupService.CategoryRollup;
+import jpabook.jpashop.service.CategoryService;
+import jpabook.jpashop.service.CategoryTree;
+import jpabook.jpashop.service.CategoryTreeService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// 카테고리 트리와 집계는 메모리에 있는 CategoryTree, CategoryRollupService로 응답 (쿼리 없음)
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private static final String ITEM_CURSOR_TYPE = "ci"; // 카테고리 상품 목록 커서
+
+    private final CategoryService categoryService;
+    private final CategoryTreeService categoryTreeService;
+    private final CategoryRollupService categoryRollupService;
+
+    // rootId가 있으면 그 카테고리의 하위 트리만
+    @GetMapping("/api/categories/tree")
+    public CategoryTreeResponse tree(@RequestParam(value = "rootId", required = false) Long rootId) {
+        CategoryTree tree = categoryTreeService.tree();
+        int[] roots;
+        if (rootId == null) {
+            roots = tree.roots();
+        } else {
+            int root = tree.indexOf(rootId);
+            if (root < 0) {
+                throw new IllegalArgumentException("카테고리가 없습니다. categoryId=" + rootId);
+            }
+            roots = new int[]{root};
+        }
+
+        List<CategoryNode> nodes = new ArrayList<>(roots.length);
+        int count = 0;
+        for (int root : roots) {
+            // 하위 트리 노드들의 집계를 한 번에 가져온다.
+            Map<Long, CategoryRollup> rollups = categoryRollupService.findAll(tree.subtreeIds(root));
+            nodes.add(toNode(tree, root, rollups));
+            count += tree.subtreeEnd(root) - root;
+        }
+        return new CategoryTreeResponse(tree.version(), count, nodes);
+    }
+
+    // 하위 카테고리까지 포함한 상품 목록 (closure 테이블, keyset 페이징)
+    @GetMapping("/api/categories/{id}/items")
+    public ItemPage itemsInSubtree(@PathVariable("id") Long id,
+                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                   @RequestParam(value = "size", defaultValue = "20") int size) {
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        // 다음 페이지가 있는지 알기 위해 1개 더 조회
+        List<ItemQueryDto> items = categoryService.findItemsInSubtree(id, KeysetCursor.decode(ITEM_CURSOR_TYPE, cursor), pageSize + 1);
+        if (items.size() <= pageSize) {
+            return new ItemPage(items, null);
+        }
+        List<ItemQueryDto> page = items.subList(0, pageSize);
+        return new ItemPage(page, KeysetCursor.encode(ITEM_CURSOR_TYPE, page.get(pageSize - 1).getId()));
+    }
+
+    @GetMapping("/api/categories/tree/stats")
+    public Map<String, Object> treeStats() {
+        return categoryTreeService.stats();
+    }
+
+    @PostMapping("/api/categories")
+    public CategoryIdResponse createCategory(@RequestBody @Valid CategoryRequest request) {
+        Long id = categoryService.create(request.getName(), request.getParentId());
+        return new CategoryIdResponse(id);
+    }
+
+    @PutMapping("/api/categories/{id}")
+    public CategoryIdResponse updateCategory(@PathVariable("id") Long id,
+                                                 @RequestBody @Valid CategoryRequest request) {
+        categoryService.update(id, request.getName(), request.getParentId());
+        return new CategoryIdResponse(id);
+    }
+
+    // 하위 카테고리까지 포함한 상품 수, 재고 합계, 최저/최고 가격 (메모리 집계)
+    @GetMapping("/api/categories/{id}/rollup")
+    public CategoryRollup rollup(@PathVariable("id") Long id) {
+        return categoryRollupService.find(id);
+    }
+
+    @GetMapping("/api/categories/rollups/stats")
+    public Map<String, Object> rollupStats() {
+        return categoryRollupService.stats();
+    }
+
+    private static CategoryNode toNode(CategoryTree tree, int index, Map<Long, CategoryRollup> rollups) {
+        int[] children = tree.children(index);
+        List<CategoryNode> childNodes = new ArrayList<>(children.length);
+        for (int child : children) {
+            childNodes.add(toNode(tree, child, rollups));
+        }
+        CategoryRollup rollup = rollups.get(tree.id(index));
+        return new CategoryNode(tree.id(index), tree.name(index), tree.depth(index), tree.path(index),
+                rollup.itemCount(), rollup.totalStock(), rollup.minPrice(), rollup.maxPrice(), childNodes);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryTreeResponse {
+        private long version;
+        private int count;
+        private List<CategoryNode> roots;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryNode {
+        private long id;
+        private String name;
+        private int depth;
+        private String path;
+        private long itemCount;   // 하위 카테고리 포함
+        private long totalStock;
+        private Integer minPrice; // 상품이 없으면 null
+        private Integer maxPrice;
+        private List<CategoryNode> children;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ItemPage {
+        private List<ItemQueryDto> data;
+        private String nextCursor;
+    }
+
+    @Data
+    static class CategoryRequest {
+        @NotEmpty
+        private String name;
+        private Long parentId; // null이면 최상위
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryIdResponse {
+        private Long id;
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.HotItemOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// 인기 상품 지정/해제, writer 통계
+@RestController
+@RequiredArgsConstructor
+public class HotItemApiController {
+
+    private final HotItemOrderService hotItemOrderService;
+
+    @PutMapping("/api/hot-items/{itemId}")
+    public Map<String, Object> enable(@PathVariable("itemId") Long itemId) {
+        hotItemOrderService.enable(itemId);
+        return Map.of("itemId", itemId, "hot", true);
+    }
+
+    @DeleteMapping("/api/hot-items/{itemId}")
+    public Map<String, Object> disable(@PathVariable("itemId") Long itemId) {
+        hotItemOrderService.disable(itemId);
+        return Map.of("itemId", itemId, "hot", false);
+    }
+
+    @GetMapping("/api/hot-items/stats")
+    public Map<String, Object> stats() {
+        return hotItemOrderService.stats();
+    }
+}
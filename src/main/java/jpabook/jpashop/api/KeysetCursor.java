@@ -0,0 +1,42 @@
+package jpabook.jpashop.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset 페이징용 커서 (마지막 id를 "종류:id" 형태로 감싸서 Base64)
+ * 클라이언트는 값을 해석하지 않고 그대로 다음 요청에 넘겨주기만 한다.
+ * 종류가 다른 커서(주문 커서를 회원 API에 넘기는 등)는 잘못된 커서로 처리한다. (400 Bad Request)
+ */
+final class KeysetCursor {
+
+    private KeysetCursor() {
+    }
+
+    static String encode(String type, Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        byte[] bytes = (type + ":" + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static Long decode(String type, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String prefix = type + ":";
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(prefix)) {
+                throw new IllegalArgumentException("잘못된 커서입니다.");
+            }
+            return Long.parseLong(value.substring(prefix.length()));
+        } catch (IllegalArgumentException e) { // NumberFormatException 포함
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 커서입니다.", e);
+        }
+    }
+}
@@ -3,13 +3,17 @@ package jpabook.jpashop.api;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameFilter;
+import jpabook.jpashop.repository.MemberNameView;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 
@@ -23,7 +27,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemberApiController {
 
+    private static final String CURSOR_TYPE = "m"; // 회원 목록 커서
+
     private final MemberService memberService;
+    private final MemberNameFilter memberNameFilter;
 
     // v1 : 엔티티의 모든 정보가 노출됨. 회원의 주문정보도 노출됨.
     // @JsonIgnore을 사용해 없앨 수 있지만, 엔티티를 활용하는 부분이 영향을 받음.
@@ -42,6 +49,27 @@ public class MemberApiController {
         return new Result(collect.size(), collect);
     }
 
+    // v3 : id, name 컬럼만 조회 (엔티티를 영속성 컨텍스트에 올리지 않음) + keyset 페이징
+    // 전체 회원 수는 withCount=true일 때만, 캐시된 값으로 돌려준다.
+    @GetMapping("/api/v3/members")
+    public MemberPage<List<MemberNameView>> memberV3(@RequestParam(value = "cursor", required = false) String cursor,
+                                                    @RequestParam(value = "size", defaultValue = "20") int size,
+                                                    @RequestParam(value = "withCount", defaultValue = "false") boolean withCount) {
+        Slice<MemberNameView> slice = memberService.findMemberNames(KeysetCursor.decode(CURSOR_TYPE, cursor), Math.min(Math.max(size, 1), 100));
+        List<MemberNameView> content = slice.getContent();
+        String nextCursor = slice.hasNext() ? KeysetCursor.encode(CURSOR_TYPE, content.get(content.size() - 1).getId()) : null;
+        Long totalCount = withCount ? memberService.countMembers() : null;
+        return new MemberPage<>(content, nextCursor, totalCount);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class MemberPage<T> {
+        private T data;
+        private String nextCursor;
+        private Long totalCount;
+    }
+
     @Data
     @AllArgsConstructor
     static class Result<T> {
@@ -76,10 +104,15 @@ public class MemberApiController {
 
     @PatchMapping("/api/v2/members/{id}") // 부분 수정에는 Patch
     public UpdateMemberResponse updateMemberV2(@PathVariable("id") Long id, @RequestBody @Valid UpdateMemberRequest request) {
-        memberService.update(id, request.getName());
-        // 변경이 완료되면 다시 조회하여 변경 여부를 확인.
-        Member findMember = memberService.findOne(id);
-        return new UpdateMemberResponse(findMember.getId(), findMember.getName());
+        // 변경된 회원을 바로 돌려받아 응답 (다시 조회하지 않음)
+        Member updatedMember = memberService.update(id, request.getName());
+        return new UpdateMemberResponse(updatedMember.getId(), updatedMember.getName());
+    }
+
+    // 가입 시 중복 이름 Bloom filter 통계 (DB 조회 생략 수, 오탐률)
+    @GetMapping("/api/members/name-filter/stats")
+    public Map<String, Object> nameFilterStats() {
+        return memberNameFilter.stats();
     }
 
     @Data
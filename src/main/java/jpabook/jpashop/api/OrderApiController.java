@@ -1,23 +1,44 @@
 package jpabook.jpashop.api;
 
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryQueryDto;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.service.OrderExportService;
+import jpabook.jpashop.service.OrderLine;
+import jpabook.jpashop.service.OrderLineResult;
+import jpabook.jpashop.service.OrderReadCache;
+import jpabook.jpashop.service.OrderReadCacheKey;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.OrderSummaryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.*;
@@ -28,6 +49,11 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderExportService orderExportService;
+    private final OrderReadCache orderReadCache;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderService orderService;
 
     // 주문 조회 V1: 엔티티 직접 노출
     @GetMapping("/api/v1/orders")
@@ -100,16 +126,38 @@ public class OrderApiController {
         return result;
     }
 
-    // 주문 조회 V4: JPA에서 DTO 직접 조회
+    // 주문 조회 V3.2: 엔티티를 DTO로 변환 - keyset(커서) 페이징
+    // V3.1과 같이 xToOne 관계만 fetch join, 컬렉션은 default_batch_fetch_size로 최적화
+    // offset 대신 이전 응답의 nextCursor(마지막 order_id) 이후부터 조회하므로 깊은 페이지도 비용이 일정하다.
+    // 다음 페이지가 없으면 nextCursor는 null, limit은 1~100, 잘못된 커서는 400
+    @GetMapping("/api/v3.2/orders")
+    public OrderPage<List<OrderDto>> ordersV3_cursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), 100);
+        List<Order> orders = orderRepository.findAllWithMemberDeliveryAfter(OrderCursor.decode(cursor), pageSize);
+
+        List<OrderDto> result = orders.stream()
+                .map(OrderDto::new)
+                .collect(toList());
+
+        String nextCursor = orders.size() < pageSize ? null
+                : OrderCursor.encode(orders.get(orders.size() - 1).getId());
+        return new OrderPage<>(result, nextCursor);
+    }
+
+    // 주문 조회 V4: JPA에서 DTO 직접 조회 (V4, V5는 주문이 바뀌기 전까지 OrderReadCache 결과 사용)
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
-        return orderQueryRepository.findOrderQueryDtos();
+        return orderReadCache.get(OrderReadCacheKey.of(OrderReadCacheKey.Type.ORDERS_V4),
+                () -> List.copyOf(orderQueryRepository.findOrderQueryDtos()));
     }
 
     // 주문 조회 V5: JPA에서 DTO 직접 조회 - 컬렉션 조회 최적화
     @GetMapping("/api/v5/orders")
     public List<OrderQueryDto> ordersV5() {
-        return orderQueryRepository.findAllByDto_optimization();
+        return orderReadCache.get(OrderReadCacheKey.of(OrderReadCacheKey.Type.ORDERS_V5),
+                () -> List.copyOf(orderQueryRepository.findAllByDto_optimization()));
     }
 
     // 주문 조회 V6: JPA에서 DTO로 직접 조회, 플랫 데이터 최적화
@@ -117,22 +165,142 @@ public class OrderApiController {
     // [ 단점 ]
     // 쿼리는 한번이지만 조인으로 인해 DB에서 애플리케이션에 전달하는 데이터에 중복 데이터가 추가되므로
     // 상황에 따라 V5 보다 더 느릴 수 도 있다.
-    // 애플리케이션에서 추가 작업이 크다.
-    // 페이징 불가능
+    // 애플리케이션에서 추가 작업이 크다. -> order_id 순으로 정렬해서 OrderFlatAssembler로 한 번에 접는다.
+    // 페이징 불가능 -> V6.1 참고
     @GetMapping("/api/v6/orders")
     public List<OrderQueryDto> ordersV6() {
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
+        return OrderFlatAssembler.assemble(flats);
+    }
+
+    // 주문 조회 V6.1: 플랫 데이터 최적화 + 페이징
+    // row 단위로 자르면 주문의 orderItems가 페이지 사이에서 잘리므로 order_id 단위로 페이징한다.
+    // 1. 페이지에 해당하는 order_id 조회 (cursor가 있으면 keyset, 없으면 offset)
+    // 2. 해당 주문들만 플랫 조회 후 조립 -> 쿼리 2번
+    // limit은 1~100, 잘못된 커서는 400
+    @GetMapping("/api/v6.1/orders")
+    public OrderPage<List<OrderQueryDto>> ordersV6_page(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), 100);
+        List<Long> orderIds = cursor != null
+                ? orderQueryRepository.findOrderIdsAfter(OrderCursor.decode(cursor), pageSize)
+                : orderQueryRepository.findOrderIds(Math.max(offset, 0), pageSize);
+
+        List<OrderQueryDto> result = OrderFlatAssembler.assemble(orderQueryRepository.findAllByDto_flat(orderIds));
+
+        String nextCursor = orderIds.size() < pageSize ? null
+                : OrderCursor.encode(orderIds.get(orderIds.size() - 1));
+        return new OrderPage<>(result, nextCursor);
+    }
+
+    // 주문 조회 V7: 주문 요약 테이블(order_summary) 조회
+    // 주문/취소 시점에 같은 트랜잭션에서 갱신해 둔 요약 테이블 하나만 읽는다. (조인, 컬렉션 조회 없음)
+    // 요약 테이블에는 주문상품 목록 대신 주문상품 수와 전체 가격이 들어있다.
+    // 주문일 최신순 keyset 페이징 (limit은 1~100, 다음 페이지가 없으면 nextCursor는 null)
+    @GetMapping("/api/v7/orders")
+    public OrderPage<List<OrderSummaryQueryDto>> ordersV7(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), 100);
+        List<OrderSummaryQueryDto> result = orderSummaryRepository.findSummaryDtos(OrderCursor.decode(cursor), pageSize);
+
+        String nextCursor = result.size() < pageSize ? null
+                : OrderCursor.encode(result.get(result.size() - 1).getOrderId());
+        return new OrderPage<>(result, nextCursor);
+    }
+
+    // 주문 요약 테이블 재생성 (기존 주문 backfill)
+    @PostMapping("/api/order-summaries/rebuild")
+    public Map<String, Integer> rebuildOrderSummaries() {
+        return Map.of("count", orderSummaryService.rebuild());
+    }
+
+    // 여러 상품 주문: 주문 1건에 주문상품 여러 개 (같은 상품이 여러 줄이면 수량을 합침)
+    @PostMapping("/api/v2/orders")
+    public CreateOrderResponse orderItems(@RequestBody @Valid CreateOrderRequest request) {
+        Map<Long, Integer> itemCounts = request.getItems().stream()
+                .collect(toMap(CreateOrderItemRequest::getItemId, CreateOrderItemRequest::getCount, Integer::sum));
+        return new CreateOrderResponse(orderService.orderItems(request.getMemberId(), itemCounts));
+    }
 
-        return flats.stream()
-                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(),
-                                o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        mapping(o -> new OrderItemQueryDto(o.getOrderId(),
-                                o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
-                )).entrySet().stream()
-                .map(e -> new OrderQueryDto(e.getKey().getOrderId(),
-                        e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(),
-                        e.getKey().getAddress(), e.getValue()))
+    // 대량 주문: 주문 줄마다 결과를 돌려준다. (재고 부족 등으로 실패한 줄이 있어도 나머지는 주문됨)
+    @PostMapping("/api/v2/orders/batch")
+    public OrderBatchResponse orderBatch(@RequestBody @Valid OrderBatchRequest request) {
+        List<OrderLine> lines = request.getLines().stream()
+                .map(line -> new OrderLine(line.getMemberId(), line.getItemId(), line.getCount()))
                 .collect(toList());
+        return new OrderBatchResponse(orderService.orderBatch(lines));
+    }
+
+    // 주문 전체 export: 한 줄에 주문 1건(OrderQueryDto)씩 NDJSON으로 스트리밍
+    // 전체 결과를 List로 만들지 않으므로 주문 수와 상관없이 힙 사용량이 일정하다.
+    @GetMapping(value = "/api/orders/export.ndjson", produces = "application/x-ndjson")
+    public void exportOrders(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        orderExportService.exportNdjson(response.getOutputStream());
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        @Size(max = 100)
+        private List<@Valid CreateOrderItemRequest> items;
+    }
+
+    @Data
+    static class CreateOrderItemRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+
+    @Data
+    static class OrderBatchRequest {
+        @NotEmpty
+        @Size(max = 10000)
+        private List<@Valid OrderLineRequest> lines;
+    }
+
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long memberId;
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Getter
+    static class OrderBatchResponse {
+        private int ordered;
+        private int failed;
+        private List<OrderLineResult> results;
+
+        public OrderBatchResponse(List<OrderLineResult> results) {
+            this.results = results;
+            this.ordered = (int) results.stream().filter(r -> r.getStatus() == OrderLineResult.Status.ORDERED).count();
+            this.failed = results.size() - ordered;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class OrderPage<T> {
+        private T data;
+        private String nextCursor;
     }
 
     @Getter // 또는 @Data -> 안쓰는게 나은 경우도 있음.
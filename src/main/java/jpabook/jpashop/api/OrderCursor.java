@@ -0,0 +1,21 @@
+package jpabook.jpashop.api;
+
+/**
+ * keyset 페이징용 커서
+ * 클라이언트는 값을 해석하지 않고 그대로 다음 요청에 넘겨주기만 한다. (내부적으로는 마지막 order_id)
+ */
+public final class OrderCursor {
+
+    private static final String TYPE = "o";
+
+    private OrderCursor() {
+    }
+
+    public static String encode(Long lastOrderId) {
+        return KeysetCursor.encode(TYPE, lastOrderId);
+    }
+
+    public static Long decode(String cursor) {
+        return KeysetCursor.decode(TYPE, cursor);
+    }
+}
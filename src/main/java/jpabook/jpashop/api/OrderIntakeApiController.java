@@ -0,0 +1,102 @@
+package jpabook.jpashop.api;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import jpabook.jpashop.Exception.OrderQueueFullException;
+import jpabook.jpashop.service.OrderIntakeService;
+import jpabook.jpashop.service.OrderTicket;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * 비동기 주문 접수
+ * 요청은 검증 후 큐에 넣고 바로 202 + 접수증 id를 돌려준다. 결과는 상태 조회 API로 확인.
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderIntakeApiController {
+
+    private final OrderIntakeService orderIntakeService;
+
+    @PostMapping("/api/v2/orders/async")
+    public ResponseEntity<TicketDto> submit(@RequestBody @Valid AsyncOrderRequest request) {
+        Map<Long, Integer> itemCounts = request.getItems().stream()
+                .collect(toMap(AsyncOrderItemRequest::getItemId, AsyncOrderItemRequest::getCount, Integer::sum));
+        try {
+            OrderTicket ticket = orderIntakeService.submit(request.getMemberId(), itemCounts);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v2/orders/async/" + ticket.getId()))
+                    .body(new TicketDto(ticket));
+        } catch (OrderQueueFullException e) {
+            // 대기열이 비워질 때까지 잠시 후 다시 요청
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    @GetMapping("/api/v2/orders/async/{ticketId}")
+    public ResponseEntity<TicketDto> status(@PathVariable("ticketId") String ticketId) {
+        OrderTicket ticket = orderIntakeService.findTicket(ticketId);
+        if (ticket == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new TicketDto(ticket));
+    }
+
+    @GetMapping("/api/v2/orders/async/stats")
+    public Map<String, Object> stats() {
+        return orderIntakeService.stats();
+    }
+
+    @Data
+    static class AsyncOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        @Size(max = 100)
+        private List<@Valid AsyncOrderItemRequest> items;
+    }
+
+    @Data
+    static class AsyncOrderItemRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Getter
+    static class TicketDto {
+        private String ticketId;
+        private OrderTicket.Status status;
+        private Long orderId;
+        private String error;
+        private LocalDateTime acceptedAt;
+        private LocalDateTime completedAt;
+
+        public TicketDto(OrderTicket ticket) {
+            ticketId = ticket.getId();
+            status = ticket.getStatus();
+            orderId = ticket.getOrderId();
+            error = ticket.getError();
+            acceptedAt = ticket.getAcceptedAt();
+            completedAt = ticket.getCompletedAt();
+        }
+    }
+}
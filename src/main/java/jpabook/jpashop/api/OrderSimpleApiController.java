@@ -1,5 +1,6 @@
 package jpabook.jpashop.api;
 
+import jpabook.jpashop.api.OrderApiController.OrderPage;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.repository.OrderSearch;
@@ -7,9 +8,13 @@ import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.service.OrderReadCache;
+import jpabook.jpashop.service.OrderReadCacheKey;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -29,6 +34,8 @@ public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderReadCache orderReadCache;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     // 1. 엔티티를 직접 노출
     // 2. 자원 낭비 (필요 없는 쿼리까지 수행)
@@ -77,9 +84,26 @@ public class OrderSimpleApiController {
 
     // 1. dto에서 필요한 필드만 가져올 수 있음.
     // 2. 자원 절약 -> 성능 향상 but, fit하게 만들었기 때문에 재사용성은 낮음.
+    // 3. 주문이 바뀌기 전까지는 OrderReadCache에 담긴 결과를 사용
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
-        return orderSimpleQueryRepository.findOrderDtos();
+        return orderReadCache.get(OrderReadCacheKey.of(OrderReadCacheKey.Type.SIMPLE_ORDERS_V4),
+                () -> List.copyOf(orderSimpleQueryRepository.findOrderDtos()));
+    }
+
+    // 1. 주문 시점에 미리 만들어 둔 order_summary 테이블 하나만 조회 (조인 없음)
+    // 2. 요약 테이블을 주문/취소와 같은 트랜잭션에서 갱신해야 하는 쓰기 비용이 생김.
+    // 3. 주문일 최신순 keyset 페이징 (limit은 1~100, 다음 페이지가 없으면 nextCursor는 null)
+    @GetMapping("/api/v5/simple-orders")
+    public OrderPage<List<OrderSimpleQueryDto>> ordersV5(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), 100);
+        List<OrderSimpleQueryDto> result = orderSummaryRepository.findOrderDtos(OrderCursor.decode(cursor), pageSize);
+
+        String nextCursor = result.size() < pageSize ? null
+                : OrderCursor.encode(result.get(result.size() - 1).getOrderId());
+        return new OrderPage<>(result, nextCursor);
     }
 
     @Data
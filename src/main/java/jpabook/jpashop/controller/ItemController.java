@@ -1,24 +1,30 @@
 package jpabook.jpashop.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jpabook.jpashop.domain.item.Book;
-import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.item.query.ItemCatalogSearch;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import jpabook.jpashop.service.ItemCatalogService;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.UpdateItemDTO;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @Controller
 @RequiredArgsConstructor
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemCatalogService itemCatalogService;
 
     @GetMapping("/items/new")
     public String createForm(Model model) {
@@ -41,10 +47,18 @@ public class ItemController {
         return "redirect:/";
     }
 
+    // 페이징 + 필요한 컬럼만 조회, 목록 version으로 ETag (바뀐 것이 없으면 DB 조회 없이 304)
     @GetMapping("/items")
-    public String list(Model model) {
-        List<Item> items = itemService.findItems();
-        model.addAttribute("items", items);
+    public String list(@ModelAttribute("itemSearch") ItemCatalogSearch itemSearch,
+                       WebRequest webRequest, HttpServletResponse response, Model model) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue()); // 매번 ETag로 확인
+        if (webRequest.checkNotModified("items-" + itemCatalogService.version())) {
+            return null;
+        }
+
+        Page<ItemQueryDto> page = itemCatalogService.findCatalog(itemSearch);
+        model.addAttribute("items", page.getContent());
+        model.addAttribute("page", page);
 
         return "items/itemList";
     }
@@ -1,35 +1,56 @@
 package jpabook.jpashop.controller;
 
-import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.MemberNameView;
 import jpabook.jpashop.repository.OrderSearch;
-import jpabook.jpashop.domain.item.Item;
-import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.repository.item.query.ItemCatalogSearch;
+import jpabook.jpashop.repository.item.query.ItemCatalogSort;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import jpabook.jpashop.service.HotItemOrderService;
+import jpabook.jpashop.service.ItemCatalogService;
 import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderListDto;
 import jpabook.jpashop.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Controller
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int ORDER_FORM_PAGE_SIZE = 20; // 주문 화면 회원/상품 선택 목록 한 페이지 크기
+
     private final OrderService orderService;
+    private final HotItemOrderService hotItemOrderService;
     private final MemberService memberService;
-    private final ItemService itemService;
+    private final ItemCatalogService itemCatalogService;
 
+    // 회원, 상품 전체를 읽지 않고 이름 앞부분 검색 + 이름순 페이지 단위로 선택 목록을 채운다.
     @GetMapping("/order")
-    public String createForm(Model model) {
+    public String createForm(@RequestParam(value = "memberName", required = false) String memberName,
+                             @RequestParam(value = "memberPage", defaultValue = "0") int memberPage,
+                             @RequestParam(value = "itemName", required = false) String itemName,
+                             @RequestParam(value = "itemPage", defaultValue = "0") int itemPage,
+                             Model model) {
+
+        Slice<MemberNameView> members = memberService.searchMemberNames(memberName, memberPage, ORDER_FORM_PAGE_SIZE);
 
-        List<Member> members = memberService.findMembers();
-        List<Item> items = itemService.findItems();
+        ItemCatalogSearch itemSearch = new ItemCatalogSearch();
+        itemSearch.setName(itemName);
+        itemSearch.setSort(ItemCatalogSort.NAME);
+        itemSearch.setPage(itemPage);
+        itemSearch.setSize(ORDER_FORM_PAGE_SIZE);
+        Page<ItemQueryDto> items = itemCatalogService.findCatalog(itemSearch);
 
-        model.addAttribute("members", members);
-        model.addAttribute("items", items);
+        model.addAttribute("memberName", memberName);
+        model.addAttribute("itemName", itemName);
+        model.addAttribute("members", members.getContent());
+        model.addAttribute("memberSlice", members);
+        model.addAttribute("items", items.getContent());
+        model.addAttribute("itemPage", items);
 
         return "order/orderForm";
     }
@@ -39,14 +60,16 @@ public class OrderController {
                         @RequestParam("itemId") Long itemId,
                         @RequestParam("count") int count) {
 
-        orderService.order(memberId, itemId, count);
+        // 인기 상품이면 상품별 writer가 모아서 한 번에 주문
+        hotItemOrderService.order(memberId, itemId, count);
         return "redirect:/orders";
     }
 
     @GetMapping("/orders")
     public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
-        List<Order> orders = orderService.findOrders(orderSearch);
-        model.addAttribute("orders", orders);
+        Page<OrderListDto> page = orderService.findOrders(orderSearch);
+        model.addAttribute("orders", page.getContent());
+        model.addAttribute("page", page);
         
         return "order/orderList";
     }
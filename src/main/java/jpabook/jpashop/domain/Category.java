@@ -4,31 +4,52 @@ import jakarta.persistence.*;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
+// 카테고리는 거의 바뀌지 않으므로 NONSTRICT_READ_WRITE (변경 시 캐시를 무효화만 함)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Getter @Setter
 public class Category {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq_generator")
+    @SequenceGenerator(name = "category_seq_generator", sequenceName = "category_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     @Column(name = "category_id")
     private Long id;
 
     private String name;
 
     // 실무에서는 다대다 관계를 거의 사용하지 않는다.
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     @ManyToMany
     @JoinTable(name = "category_item",
         inverseJoinColumns = @JoinColumn(name = "item_id"),
-        joinColumns = @JoinColumn(name = "category_id"))
+        joinColumns = @JoinColumn(name = "category_id"),
+        indexes = @Index(name = "idx_category_item_category", columnList = "category_id, item_id"))
     private List<Item> items = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Category parent;
 
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
+
+    // 연관관계 (편의) 메소드 --------------------------------------
+    public void changeParent(Category parent) {
+        if (this.parent != null) {
+            this.parent.getChild().remove(this);
+        }
+        this.parent = parent;
+        if (parent != null) {
+            parent.getChild().add(this);
+        }
+    }
 }
@@ -8,7 +8,9 @@ import lombok.Setter;
 @Getter @Setter
 public class Delivery {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_seq_generator")
+    @SequenceGenerator(name = "delivery_seq_generator", sequenceName = "delivery_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     @Column(name = "delivery_id")
     private Long id;
 
@@ -0,0 +1,16 @@
+package jpabook.jpashop.domain;
+
+/**
+ * 엔티티 id 시퀀스 할당 크기
+ * 시퀀스를 한 번 호출할 때 ALLOCATION_SIZE 개의 id를 미리 받아 두고 메모리에서 나눠 쓴다. (pooled-lo)
+ * insert마다 시퀀스를 호출하지 않아야 jdbc batch insert가 의미가 있다.
+ *
+ * 주의: 애너테이션 값이라 상수여야 하고, 바꾸면 DB 시퀀스의 increment by도 같이 바꿔야 한다.
+ */
+public final class IdAllocation {
+
+    public static final int ALLOCATION_SIZE = 100;
+
+    private IdAllocation() {
+    }
+}
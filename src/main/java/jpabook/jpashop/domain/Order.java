@@ -5,6 +5,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 import org.aspectj.weaver.ast.Or;
 
 import java.time.LocalDateTime;
@@ -12,12 +13,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// 주문 검색(상태 + 주문시간 정렬), 회원별 주문 조회에 사용하는 인덱스
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date"),
+        @Index(name = "idx_orders_member_id", columnList = "member_id")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED) // 생성 매서드 외의 생성에 제약을 줌.
 public class Order {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq_generator")
+    @SequenceGenerator(name = "order_seq_generator", sequenceName = "orders_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     @Column(name = "order_id")
     private Long id;
 
@@ -47,7 +54,10 @@ public class Order {
     // 연관관계 (편의) 메소드 --------------------------------------
     public void setMember(Member member) {
         this.member = member;
-        member.getOrders().add(this);
+        // 프록시(getReference)로 받은 회원이면 주문 목록을 채우려고 회원을 조회하지 않는다.
+        if (Hibernate.isInitialized(member)) {
+            member.getOrders().add(this);
+        }
     }
 
     public void addOrderItem(OrderItem orderItem) {
@@ -7,14 +7,17 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 
 @Entity
-@Table(name = "order_item")
+@Table(name = "order_item", indexes = @Index(name = "idx_order_item_order_id", columnList = "order_id"))
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED) // 생성 매서드 외의 생성에 제약을 줌.
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -38,7 +41,10 @@ public class OrderItem {
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
 
-        item.removeStock(count);
+        // 재고는 ItemRepository에서 DB로 감소, 여기서는 로딩된 상품의 값만 맞춘다. (프록시면 조회하지 않음)
+        if (Hibernate.isInitialized(item)) {
+            item.removeStock(count);
+        }
         return orderItem;
     }
 
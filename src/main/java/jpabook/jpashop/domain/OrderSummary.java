@@ -0,0 +1,66 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 조회용 요약 테이블 (읽기 모델)
+ * 주문/회원/배송/주문상품을 매번 조인하지 않도록 조회에 필요한 값을 한 row에 미리 모아둔다.
+ * 주문, 주문 취소, 회원 이름 변경 시 같은 트랜잭션에서 함께 갱신된다.
+ */
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_order_date", columnList = "order_date, order_id"), // 최신순 keyset 페이징
+        @Index(name = "idx_order_summary_member_id", columnList = "member_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId; // 주문 id를 그대로 사용
+
+    @Column(name = "member_id")
+    private Long memberId;
+    private String memberName;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Embedded
+    private Address address; // 배송지
+
+    private int itemCount; // 주문상품 종류 수
+    private int totalPrice; // 전체 주문 가격
+
+    // 생성 매서드 --------------------------------------
+    public static OrderSummary createOrderSummary(Order order) {
+        return createOrderSummary(order, order.getMember().getName());
+    }
+
+    // 회원이 프록시일 때 이름 때문에 회원을 조회하지 않도록 이름을 따로 받는다.
+    public static OrderSummary createOrderSummary(Order order, String memberName) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = memberName;
+        summary.orderDate = order.getOrderDate();
+        summary.status = order.getStatus();
+        summary.address = order.getDelivery().getAddress();
+        summary.itemCount = order.getOrderItems().size();
+        summary.totalPrice = order.getTotalPrice();
+        return summary;
+    }
+
+    // 비즈니스 로직 --------------------------------------
+    public void cancel() {
+        this.status = OrderStatus.CANCEL;
+    }
+}
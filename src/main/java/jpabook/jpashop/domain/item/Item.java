@@ -3,27 +3,49 @@ package jpabook.jpashop.domain.item;
 import jakarta.persistence.*;
 import jpabook.jpashop.Exception.NotEnoughStockException;
 import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.IdAllocation;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
+// 조회가 변경보다 훨씬 많으므로 2차 캐시 사용 (재고가 바뀌므로 READ_WRITE)
+// SINGLE_TABLE 상속이라 Book, Album, Movie도 이 region을 같이 사용한다. (자식 클래스에는 @Cache를 붙이지 않음)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
+@Table(indexes = {
+        @Index(name = "idx_item_dtype", columnList = "dtype, item_id"),
+        @Index(name = "idx_item_price", columnList = "price, item_id"),
+        @Index(name = "idx_item_name", columnList = "name, item_id")
+})
 @Getter @Setter
 public abstract class Item {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq_generator")
+    @SequenceGenerator(name = "item_seq_generator", sequenceName = "item_seq", allocationSize = IdAllocation.ALLOCATION_SIZE)
     @Column(name = "item_id")
     private Long id;
 
     private String name;
     private int price;
+    // 재고는 ItemRepository의 조건부 update로만 변경 (변경 감지로 덮어쓰면 동시 주문 시 갱신 손실)
+    // addStock, removeStock은 현재 영속성 컨텍스트의 값만 맞춰 준다.
+    @Column(updatable = false)
     private int stockQuantity;
 
+    // 상품 종류 (B, A, M): 목록 조회에서 DTO로 바로 읽고 거르기 위해 구분 컬럼을 읽기 전용으로 매핑
+    @Column(name = "dtype", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String dtype;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
@@ -0,0 +1,161 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.CategoryClosure;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 전체 카테고리 (id, name, parent_id) 한 번에 조회
+     * 엔티티가 아니라 값만 가져오므로 parent/child 지연 로딩이 일어나지 않는다.
+     */
+    public List<CategoryRow> findAllRows() {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.CategoryRow(c.id, c.name, p.id)" +
+                                " from Category c" +
+                                " left join c.parent p" +
+                                " order by c.id", CategoryRow.class)
+                .getResultList();
+    }
+
+    // closure 테이블 --------------------------------------
+    // 네이티브 update는 기본으로 2차 캐시 region 전체를 비우므로 category_closure만 건드린다고 알려준다.
+
+    /**
+     * 새 카테고리: 자기 자신(depth 0) + 부모의 모든 조상(depth + 1)
+     */
+    public void insertClosure(Long categoryId, Long parentId) {
+        closureUpdate("insert into category_closure (ancestor_id, descendant_id, depth) values (:id, :id, 0)")
+                .setParameter("id", categoryId)
+                .executeUpdate();
+        if (parentId != null) {
+            closureUpdate("insert into category_closure (ancestor_id, descendant_id, depth)" +
+                    " select c.ancestor_id, :id, c.depth + 1" +
+                    " from category_closure c" +
+                    " where c.descendant_id = :parentId")
+                    .setParameter("id", categoryId)
+                    .setParameter("parentId", parentId)
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * 하위 트리 이동: 하위 트리 밖의 예전 조상과의 연결을 끊고, 새 부모의 조상들과 하위 트리 전체를 잇는다.
+     * 하위 트리 안쪽 row(자기 자신 포함)는 그대로 둔다.
+     */
+    public void moveClosure(Long categoryId, Long newParentId) {
+        closureUpdate("delete from category_closure" +
+                " where descendant_id in (select d.descendant_id from category_closure d where d.ancestor_id = :id)" +
+                " and ancestor_id in (select a.ancestor_id from category_closure a where a.descendant_id = :id and a.ancestor_id <> :id)")
+                .setParameter("id", categoryId)
+                .executeUpdate();
+        if (newParentId != null) {
+            closureUpdate("insert into category_closure (ancestor_id, descendant_id, depth)" +
+                    " select a.ancestor_id, d.descendant_id, a.depth + d.depth + 1" +
+                    " from category_closure a, category_closure d" +
+                    " where a.descendant_id = :parentId and d.ancestor_id = :id")
+                    .setParameter("id", categoryId)
+                    .setParameter("parentId", newParentId)
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * descendantId가 ancestorId의 하위 트리에 있는지 (자기 자신 포함)
+     */
+    public boolean isInSubtree(Long ancestorId, Long descendantId) {
+        return !em.createQuery(
+                        "select 1 from CategoryClosure c" +
+                                " where c.ancestorId = :ancestorId and c.descendantId = :descendantId", Integer.class)
+                .setParameter("ancestorId", ancestorId)
+                .setParameter("descendantId", descendantId)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 하위 트리(자기 자신 포함)에 속한 상품 (item_id 순 keyset 페이징)
+     * closure(ancestor_id) -> category_item(category_id, item_id) 인덱스 조인 한 번으로 상품 id를 모으고 item PK로 읽는다.
+     * 상품이 하위 트리의 여러 카테고리에 있어도 한 번만 나온다.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ItemQueryDto> findItemsInSubtree(Long categoryId, Long lastItemId, int limit) {
+        List<Object[]> rows = em.createNativeQuery(
+                        "select i.item_id, i.name, i.price, i.stock_quantity, i.dtype" +
+                                " from item i" +
+                                " where i.item_id in (" +
+                                "   select ci.item_id" +
+                                "   from category_closure c" +
+                                "   join category_item ci on ci.category_id = c.descendant_id" +
+                                "   where c.ancestor_id = :categoryId)" +
+                                " and i.item_id > :lastItemId" +
+                                " order by i.item_id" +
+                                " limit :limit")
+                .setParameter("categoryId", categoryId)
+                .setParameter("lastItemId", lastItemId == null ? 0L : lastItemId)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream()
+                .map(r -> new ItemQueryDto(((Number) r[0]).longValue(), (String) r[1],
+                        ((Number) r[2]).intValue(), ((Number) r[3]).intValue(), (String) r[4]))
+                .toList();
+    }
+
+    // 카테고리별 집계 --------------------------------------
+
+    /**
+     * 카테고리별(하위 카테고리 포함) 상품 수, 재고 합계, 최저/최고 가격: group by 1번
+     * 상품이 하위 트리의 여러 카테고리에 있어도 한 번만 센다. 상품이 없는 카테고리는 결과에 없다.
+     * [category_id, item_count, total_stock, min_price, max_price]
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findRollupRows() {
+        return em.createNativeQuery(
+                        "select s.ancestor_id, count(*), sum(i.stock_quantity), min(i.price), max(i.price)" +
+                                " from (select distinct c.ancestor_id, ci.item_id" +
+                                "       from category_closure c" +
+                                "       join category_item ci on ci.category_id = c.descendant_id) s" +
+                                " join item i on i.item_id = s.item_id" +
+                                " group by s.ancestor_id")
+                .getResultList();
+    }
+
+    /**
+     * 상품별로 집계에 포함되는 카테고리 (상품이 연결된 카테고리와 그 조상 전부, 중복 제거)
+     * [item_id, category_id], item_id 순
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findItemAncestorRows() {
+        return em.createNativeQuery(
+                        "select distinct ci.item_id, c.ancestor_id" +
+                                " from category_item ci" +
+                                " join category_closure c on c.descendant_id = ci.category_id" +
+                                " order by ci.item_id")
+                .getResultList();
+    }
+
+    private NativeQuery<?> closureUpdate(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CategoryClosure.class);
+    }
+}
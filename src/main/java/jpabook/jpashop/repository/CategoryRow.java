@@ -0,0 +1,7 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 카테고리 한 줄 (parentId가 null이면 최상위)
+ */
+public record CategoryRow(Long id, String name, Long parentId) {
+}
@@ -1,10 +1,20 @@
 package jpabook.jpashop.repository;
 
+import jakarta.persistence.Cache;
 import jakarta.persistence.EntityManager;
+import jpabook.jpashop.Exception.NotEnoughStockException;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.ItemStockChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,6 +22,7 @@ import java.util.List;
 public class ItemRepository {
 
     private final EntityManager em;
+    private final ApplicationEventPublisher eventPublisher;
 
     // 저장
     public void save(Item item) {
@@ -29,6 +40,96 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    // 조회 없이 프록시만 (연관관계 FK 설정용)
+    public Item getReference(Long id) {
+        return em.getReference(Item.class, id);
+    }
+
+    // 여러 건 조회 (in 쿼리 1번)
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    // 재고 변경 --------------------------------------
+    // 재고는 조회 후 수정(변경 감지)하지 않고 DB에서 조건부 update 한 번으로 바꾼다.
+    // 동시에 같은 상품을 주문해도 update가 row 락 안에서 순서대로 실행되므로 갱신 손실, 초과 판매가 없다.
+    // JPQL 벌크 연산은 Item 2차 캐시 region 전체를 비우므로 JDBC로 실행하고, 해당 상품만 커밋 후 캐시에서 뺀다.
+
+    /**
+     * 재고 감소: 남은 재고가 quantity 이상일 때만 감소, 아니면 NotEnoughStockException
+     */
+    public void decreaseStock(Long itemId, int quantity) {
+        int updated = executeStockUpdate(itemId,
+                "update item set stock_quantity = stock_quantity - ? where item_id = ? and stock_quantity >= ?",
+                quantity, itemId, quantity);
+        if (updated == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        eventPublisher.publishEvent(new ItemStockChangedEvent(itemId, -quantity)); // 커밋 후 카테고리 재고 합계 갱신
+    }
+
+    /**
+     * 재고 증가 (주문 취소)
+     */
+    public void increaseStock(Long itemId, int quantity) {
+        if (executeStockUpdate(itemId, "update item set stock_quantity = stock_quantity + ? where item_id = ?", quantity, itemId) > 0) {
+            eventPublisher.publishEvent(new ItemStockChangedEvent(itemId, quantity));
+        }
+    }
+
+    /**
+     * 재고 변경 (상품 수정 화면, 이전 값을 모르므로 ItemService에서 ItemChangedEvent로 알림)
+     */
+    public void changeStock(Long itemId, int stockQuantity) {
+        executeStockUpdate(itemId, "update item set stock_quantity = ? where item_id = ?", stockQuantity, itemId);
+    }
+
+    /**
+     * 현재 재고 조회 + 트랜잭션 끝까지 row 잠금 (select ... for update)
+     */
+    public int findStockForUpdate(Long itemId) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "select stock_quantity from item where item_id = ? for update")) {
+                ps.setLong(1, itemId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new IllegalArgumentException("상품이 없습니다. id=" + itemId);
+                    }
+                    return rs.getInt(1);
+                }
+            }
+        });
+    }
+
+    private int executeStockUpdate(Long itemId, String sql, Object... params) {
+        int updated = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                return ps.executeUpdate();
+            }
+        });
+        evictAfterCommit(itemId);
+        return updated;
+    }
+
+    private void evictAfterCommit(Long itemId) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(Item.class, itemId);
+            }
+        });
+    }
+
     // 전체 조회
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
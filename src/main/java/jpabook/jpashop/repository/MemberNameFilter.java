@@ -0,0 +1,169 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.service.MemberChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 Bloom filter (가입 시 중복 이름 사전 확인)
+ * mightContain이 false면 그 이름의 회원은 확실히 없으므로 DB 조회를 생략한다.
+ * true면 있을 수도 있으므로(오탐) DB에서 확인한다. 최종 보장은 member.name unique 인덱스.
+ * Bloom filter는 삭제가 안 되므로 이름을 바꾼 회원의 예전 이름은 남는다. (오탐만 조금 늘어남)
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final EntityManager em;
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+    private volatile boolean ready = false;
+
+    // 통계
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong(); // 필터에 없어서 DB 조회 생략
+    private final AtomicLong falsePositives = new AtomicLong(); // 필터에는 있었는데 DB에는 없음
+
+    public MemberNameFilter(EntityManager em,
+                            @Value("${jpashop.member-filter.enabled:true}") boolean enabled,
+                            @Value("${jpashop.member-filter.expected-members:1000000}") long expectedMembers,
+                            @Value("${jpashop.member-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.em = em;
+        this.enabled = enabled;
+        // m = -n ln(p) / (ln 2)^2, k = m / n * ln 2
+        long m = (long) Math.ceil(-expectedMembers * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.max(64, (m + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedMembers * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitSize / 64));
+    }
+
+    // 애플리케이션이 뜬 후 전체 회원 이름을 넣는다. (그 전까지는 항상 DB 조회)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<String> names = em.createQuery("select m.name from Member m", String.class).getResultStream()) {
+            names.forEach(this::put);
+        }
+        ready = true;
+        log.info("member name filter loaded: members={}, bits={}, hashes={}, {}ms",
+                insertions.get(), bitSize, hashCount, System.currentTimeMillis() - start);
+    }
+
+    // 가입/이름 변경이 커밋된 경우에만 반영
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMemberChanged(MemberChangedEvent event) {
+        if (enabled) {
+            put(event.getNewName());
+        }
+    }
+
+    /**
+     * false면 이 이름의 회원은 확실히 없음
+     */
+    public boolean mightContain(String name) {
+        if (!enabled || !ready || name == null) {
+            return true;
+        }
+        checks.incrementAndGet();
+        long[] hash = hash(name);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                skipped.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // mightContain이 true였는데 DB에는 없었던 경우 (오탐률 계산용)
+    public void recordFalsePositive() {
+        if (enabled && ready) {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long checked = checks.get();
+        long positives = checked - skipped.get();
+        long n = insertions.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", ready);
+        result.put("insertions", n);
+        result.put("bits", bitSize);
+        result.put("hashes", hashCount);
+        result.put("checks", checked);
+        result.put("skippedLookups", skipped.get());
+        result.put("falsePositives", falsePositives.get());
+        // 실제 오탐률: 없는 이름으로 가입한 것 중 필터가 "있을 수도"라고 한 비율
+        long newNames = skipped.get() + falsePositives.get();
+        result.put("observedFalsePositiveRate", newNames == 0 ? 0.0 : (double) falsePositives.get() / newNames);
+        // 이론 오탐률: (1 - e^(-kn/m))^k
+        result.put("expectedFalsePositiveRate", Math.pow(1 - Math.exp(-(double) hashCount * n / bitSize), hashCount));
+        result.put("dbLookups", positives);
+        return result;
+    }
+
+    private void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long[] hash = hash(name);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    // double hashing: h1 + i * h2
+    private long index(long[] hash, int i) {
+        return Math.floorMod(hash[0] + i * hash[1], bitSize);
+    }
+
+    // 64비트 FNV-1a 해시 1개에서 두 개의 해시를 만든다.
+    private static long[] hash(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        long h1 = mix(h);
+        long h2 = mix(h ^ 0x9e3779b97f4a7c15L) | 1; // 홀수로 만들어 모든 비트 위치를 돌 수 있게
+        return new long[]{h1, h2};
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
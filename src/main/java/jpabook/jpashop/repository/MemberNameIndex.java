@@ -0,0 +1,199 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.service.MemberChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 3-gram(trigram) 인덱스
+ * like '%name%'는 인덱스를 탈 수 없어서 검색할 때마다 member 전체를 읽는다.
+ * 이름의 연속된 3글자마다 회원 id 목록을 메모리에 들고 있다가, 검색어의 3-gram 목록을 모두 가진 회원 id만 후보로 돌려준다.
+ * (후보에는 3-gram은 모두 있지만 연속되지 않은 이름도 섞일 수 있으므로 최종 확인은 쿼리에서 한 번 더 한다.)
+ * 회원 id 목록은 Long 객체 대신 정렬된 long[]로 들고 있어서 회원 수가 많아도 메모리를 적게 쓴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final EntityManager em;
+
+    private final Map<Long, LongSet> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+
+    // 애플리케이션이 뜬 후 전체 회원 이름으로 인덱스 생성
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        try (Stream<Object[]> rows = em.createQuery("select m.id, m.name from Member m order by m.id", Object[].class)
+                .getResultStream()) {
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    addInternal((Long) row[0], (String) row[1]);
+                    count++;
+                }
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("member name index loaded: members={}, grams={}, {}ms",
+                count, postings.size(), System.currentTimeMillis() - start);
+    }
+
+    // 가입/이름 변경이 커밋된 경우에만 반영
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMemberChanged(MemberChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getOldName() != null) {
+                removeInternal(event.getMemberId(), event.getOldName());
+            }
+            addInternal(event.getMemberId(), event.getNewName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 이름에 infix가 포함될 수 있는 회원 id 후보 (오름차순)
+     * 인덱스를 사용할 수 없으면(로딩 전, 검색어가 3글자 미만) null
+     */
+    public long[] findCandidates(String infix) {
+        if (!ready || infix == null || infix.length() < GRAM) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            LongSet[] sets = grams(infix).stream()
+                    .map(postings::get)
+                    .toArray(LongSet[]::new);
+            for (LongSet set : sets) {
+                if (set == null) {
+                    return new long[0]; // 해당 3-gram을 가진 회원이 없음
+                }
+            }
+            // 가장 작은 목록을 기준으로 나머지 목록에 모두 있는 id만 남긴다.
+            Arrays.sort(sets, Comparator.comparingInt(LongSet::size));
+            LongSet smallest = sets[0];
+            long[] result = new long[smallest.size()];
+            int n = 0;
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                boolean all = true;
+                for (int j = 1; j < sets.length && all; j++) {
+                    all = sets[j].contains(id);
+                }
+                if (all) {
+                    result[n++] = id;
+                }
+            }
+            return Arrays.copyOf(result, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addInternal(Long memberId, String name) {
+        if (memberId == null || name == null) {
+            return;
+        }
+        for (Long gram : grams(name)) {
+            postings.computeIfAbsent(gram, g -> new LongSet()).add(memberId);
+        }
+    }
+
+    private void removeInternal(Long memberId, String name) {
+        for (Long gram : grams(name)) {
+            LongSet set = postings.get(gram);
+            if (set != null && set.remove(memberId) && set.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // 연속된 3글자를 long 하나로 (char 16bit x 3)
+    private static Set<Long> grams(String value) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * 정렬된 long 배열 (회원 id는 대부분 증가하는 순서로 들어오므로 뒤에 붙이는 경우가 대부분)
+     */
+    static class LongSet {
+
+        private long[] values = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        boolean contains(long value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void add(long value) {
+            if (size > 0 && values[size - 1] >= value) {
+                int pos = Arrays.binarySearch(values, 0, size, value);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, value);
+                return;
+            }
+            insertAt(size, value);
+        }
+
+        boolean remove(long value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        private void insertAt(int pos, long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = value;
+            size++;
+        }
+    }
+}
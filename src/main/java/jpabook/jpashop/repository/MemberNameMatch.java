@@ -0,0 +1,10 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 회원 이름 검색 방식
+ */
+public enum MemberNameMatch {
+    EXACT,  // name like :name (와일드카드를 직접 입력)
+    PREFIX, // name like 'name%' -> member(name) 인덱스 사용 가능
+    CONTAINS // name like '%name%' -> MemberNameIndex(3-gram)로 회원 id 후보를 먼저 구함
+}
@@ -0,0 +1,11 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 회원 목록 조회용 projection (id, name 컬럼만 조회)
+ */
+public interface MemberNameView {
+
+    Long getId();
+
+    String getName();
+}
@@ -2,6 +2,8 @@ package jpabook.jpashop.repository;
 
 import jakarta.validation.constraints.NotEmpty;
 import jpabook.jpashop.domain.Member;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -11,4 +13,10 @@ import java.util.List;
 public interface MemberRepository extends JpaRepository<Member, Long> {
 
     List<Member> findByName(@NotEmpty String name);
+
+    // 회원 목록 keyset 페이징: id, name만 조회하고 size + 1건으로 다음 페이지 여부만 판단 (count 쿼리 없음)
+    Slice<MemberNameView> findByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
+
+    // 주문 화면 회원 선택: 이름 앞부분으로 검색 (uk_member_name 인덱스 범위 조회, like의 %, _는 escape됨)
+    Slice<MemberNameView> findByNameStartingWithOrderByNameAsc(String namePrefix, Pageable pageable);
 }
@@ -1,39 +1,61 @@
 package jpabook.jpashop.repository;
 
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.Order;
-import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.EntityManager;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static jpabook.jpashop.domain.QMember.member;
 import static jpabook.jpashop.domain.QOrder.order;
 
 @Repository
-@RequiredArgsConstructor
 public class OrderRepository {
 
+    // 회원 이름 후보가 이보다 많으면 in 절 대신 like로 조회
+    private static final int MAX_MEMBER_CANDIDATES = 1000;
+
+    // like 패턴의 escape 문자 (like ... escape '\')
+    private static final char LIKE_ESCAPE = '\\';
+
     private final EntityManager em;
     private final JPAQueryFactory query;
+    private final MemberNameIndex memberNameIndex;
 
-    public OrderRepository(EntityManager em, JPAQueryFactory query) {
+    // JPAQueryFactory는 빈으로 등록하지 않고 EntityManager로 직접 생성
+    public OrderRepository(EntityManager em, MemberNameIndex memberNameIndex) {
         this.em = em;
-        this.query = new JPAQueryFactory(em);;
+        this.query = new JPAQueryFactory(em);
+        this.memberNameIndex = memberNameIndex;
     }
 
     public void save(Order order) {
         em.persist(order);
     }
 
+    // 대량 저장 시 chunk 단위로 insert를 내보내고 저장이 끝난 엔티티는 영속성 컨텍스트에서 분리
+    // (Order는 cascade로 주문상품, 배송도 같이 분리됨)
+    public void flushAndDetach(List<?> entities) {
+        em.flush();
+        entities.forEach(em::detach);
+    }
+
     public Order findOne(Long id) {
         return em.find(Order.class, id);
     }
@@ -96,9 +118,19 @@ public class OrderRepository {
         }
         //회원 이름 검색
         if (StringUtils.hasText(orderSearch.getMemberName())) {
+            // 3-gram 후보와 같은 기준이 되도록 %, _는 와일드카드가 아니라 문자로 비교
             Predicate name =
-                    cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName() + "%");
+                    cb.like(m.<String>get("name"), "%" + escapeLike(orderSearch.getMemberName()) + "%", LIKE_ESCAPE);
             criteria.add(name);
+
+            // 3-gram 인덱스로 구한 회원 id 후보로 먼저 거름 (like는 후보에 대해서만 확인)
+            long[] memberIds = memberNameIndex.findCandidates(orderSearch.getMemberName());
+            if (memberIds != null && memberIds.length == 0) {
+                return new ArrayList<>();
+            }
+            if (memberIds != null && memberIds.length <= MAX_MEMBER_CANDIDATES) {
+                criteria.add(m.get("id").in(Arrays.stream(memberIds).boxed().toList()));
+            }
         }
 
         cq.where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
@@ -107,15 +139,82 @@ public class OrderRepository {
     }
 
     // querydsl을 사용한 동적 쿼리 조회
-    public List<Order> findAll(OrderSearch orderSearch) {
-        return query
+    // 최대 1000건으로 자르는 대신 페이징(page, size, 주문시간 정렬) + 전체 건수 조회
+    public Page<Order> findAll(OrderSearch orderSearch) {
+        Pageable pageable = orderSearch.toPageable();
+
+        String memberName = orderSearch.getMemberName();
+        long[] memberIds = null;
+        if (orderSearch.getMemberNameMatch() == MemberNameMatch.CONTAINS && StringUtils.hasText(memberName)) {
+            memberIds = memberNameIndex.findCandidates(memberName);
+            if (memberIds != null && memberIds.length == 0) {
+                return Page.empty(pageable); // 이름이 일치할 수 있는 회원이 없으면 DB 조회 없이 종료
+            }
+        }
+        BooleanExpression nameCondition = nameCond(memberName, orderSearch.getMemberNameMatch(), memberIds);
+
+        List<Order> content = query
                 .select(order)
                 .from(order)
-                .join(order.member, member)
-                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()))
-                .limit(1000)
+                .join(order.member, member).fetchJoin()
+                .where(statusEq(orderSearch.getOrderStatus()), nameCondition)
+                .orderBy(orderDateSort(orderSearch.getDirection()), orderIdSort(orderSearch.getDirection()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
                 .fetch();
 
+        // 마지막 페이지이거나 첫 페이지가 size보다 작으면 count 쿼리를 생략
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countAll(orderSearch.getOrderStatus(), nameCondition));
+    }
+
+    // count 쿼리는 정렬, fetch join 없이 조회하고
+    // 회원 이름 조건이 없으면 member 조인도 하지 않는다. (orders 인덱스만으로 처리)
+    private long countAll(OrderStatus orderStatus, BooleanExpression nameCondition) {
+        JPAQuery<Long> countQuery = query
+                .select(order.count())
+                .from(order);
+
+        if (nameCondition != null) {
+            countQuery.join(order.member, member);
+        }
+
+        Long count = countQuery
+                .where(statusEq(orderStatus), nameCondition)
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    // like 패턴에서 escape 문자, %, _를 문자 그대로 비교하도록 escape
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static BooleanExpression nameCond(String memberName, MemberNameMatch match, long[] memberIds) {
+        if (match == MemberNameMatch.PREFIX) {
+            return namePrefix(memberName);
+        }
+        if (match == MemberNameMatch.CONTAINS) {
+            return nameContains(memberName, memberIds);
+        }
+        return nameLike(memberName);
+    }
+
+    // like '%name%'
+    // MemberNameIndex로 구한 회원 id 후보가 있으면 o.member.id in (...)으로 먼저 거르고 (orders(member_id) 인덱스)
+    // like는 후보 row에 대해서만 3-gram 후보가 실제로 포함되는지 확인하는 용도로 평가된다.
+    // 인덱스를 쓸 수 없거나(null) 후보가 너무 많으면 기존처럼 like만 사용
+    private static BooleanExpression nameContains(String memberName, long[] memberIds) {
+        if (!StringUtils.hasText(memberName)) {
+            return null;
+        }
+        BooleanExpression contains = member.name.contains(memberName);
+        if (memberIds == null || memberIds.length > MAX_MEMBER_CANDIDATES) {
+            return contains;
+        }
+        return order.member.id.in(Arrays.stream(memberIds).boxed().toList()).and(contains);
     }
 
     private static BooleanExpression nameLike(String memberName) {
@@ -125,6 +224,23 @@ public class OrderRepository {
         return member.name.like(memberName);
     }
 
+    // like 'name%' 형태라 member(name) 인덱스를 탈 수 있음
+    private static BooleanExpression namePrefix(String memberName) {
+        if (!StringUtils.hasText(memberName)) {
+            return null;
+        }
+        return member.name.startsWith(memberName);
+    }
+
+    private static OrderSpecifier<LocalDateTime> orderDateSort(Sort.Direction direction) {
+        return direction == Sort.Direction.ASC ? order.orderDate.asc() : order.orderDate.desc();
+    }
+
+    // 주문시간이 같은 경우에도 페이지 사이에 순서가 바뀌지 않도록 id로 한 번 더 정렬
+    private static OrderSpecifier<Long> orderIdSort(Sort.Direction direction) {
+        return direction == Sort.Direction.ASC ? order.id.asc() : order.id.desc();
+    }
+
     private BooleanExpression statusEq(OrderStatus statusCond) {
         if (statusCond == null) {
             return null;
@@ -164,4 +280,25 @@ public class OrderRepository {
                 .setMaxResults(limit)
                 .getResultList();
     }
-}
\ No newline at end of file
+
+    // keyset(seek) 페이징
+    // offset 방식은 앞 페이지의 row를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+    // 마지막으로 조회한 order_id 이후부터 PK 인덱스를 타고 바로 읽으므로 N번째 페이지도 첫 페이지와 비용이 같다.
+    // 컬렉션(orderItems)은 그대로 default_batch_fetch_size로 최적화.
+    public List<Order> findAllWithMemberDeliveryAfter(Long lastOrderId, int limit) {
+        String jpql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (lastOrderId != null) {
+            jpql += " where o.id > :lastOrderId";
+        }
+        jpql += " order by o.id";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+        if (lastOrderId != null) {
+            query.setParameter("lastOrderId", lastOrderId);
+        }
+        return query.getResultList();
+    }
+}
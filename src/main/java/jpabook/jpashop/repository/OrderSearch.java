@@ -3,11 +3,26 @@ package jpabook.jpashop.repository;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 @Getter @Setter
 public class OrderSearch {
 
+    private static final int MAX_SIZE = 100;
+
     private String memberName; // 회원 이름
+    private MemberNameMatch memberNameMatch = MemberNameMatch.EXACT; // 회원 이름 검색 방식 [EXACT, PREFIX, CONTAINS(3-gram 인덱스)]
     private OrderStatus orderStatus; // 주문상태 [ORDER, CANCEL]
 
+    // 페이징 (page는 0부터 시작), 정렬은 주문시간 기준
+    private int page = 0;
+    private int size = 20;
+    private Sort.Direction direction = Sort.Direction.DESC;
+
+    public Pageable toPageable() {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SIZE);
+        return PageRequest.of(Math.max(page, 0), pageSize, Sort.by(direction, "orderDate"));
+    }
 }
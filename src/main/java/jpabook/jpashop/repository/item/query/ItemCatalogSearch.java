@@ -0,0 +1,25 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+@Getter @Setter
+public class ItemCatalogSearch {
+
+    private static final int MAX_SIZE = 100;
+
+    private String dtype; // 상품 종류 [B, A, M], 없으면 전체
+    private String name; // 상품명 앞부분, 없으면 전체
+    private ItemCatalogSort sort = ItemCatalogSort.ID;
+
+    // 페이징 (page는 0부터 시작)
+    private int page = 0;
+    private int size = 20;
+
+    public Pageable toPageable() {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SIZE);
+        return PageRequest.of(Math.max(page, 0), pageSize);
+    }
+}
@@ -0,0 +1,11 @@
+package jpabook.jpashop.repository.item.query;
+
+/**
+ * 상품 목록 정렬 (같은 값이면 상품 id 순)
+ */
+public enum ItemCatalogSort {
+    ID,         // 등록 순
+    PRICE_ASC,  // 낮은 가격 순 -> item(price, item_id) 인덱스
+    PRICE_DESC, // 높은 가격 순
+    NAME        // 이름 순 -> item(name, item_id) 인덱스
+}
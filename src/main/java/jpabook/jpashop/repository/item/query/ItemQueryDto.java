@@ -0,0 +1,22 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Data;
+
+// 상품 목록용 (엔티티를 영속성 컨텍스트에 올리지 않음)
+@Data
+public class ItemQueryDto {
+
+    private Long id;
+    private String name;
+    private int price;
+    private int stockQuantity;
+    private String dtype; // B, A, M
+
+    public ItemQueryDto(Long id, String name, int price, int stockQuantity, String dtype) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.dtype = dtype;
+    }
+}
@@ -0,0 +1,81 @@
+package jpabook.jpashop.repository.item.query;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+import static jpabook.jpashop.domain.item.QItem.item;
+
+/**
+ * 상품 목록 조회 (DTO 직접 조회)
+ * 엔티티를 영속성 컨텍스트에 올리지 않고 목록에 필요한 컬럼만 읽는다. (Book/Album/Movie 전용 컬럼은 읽지 않음)
+ */
+@Repository
+public class ItemQueryRepository {
+
+    private final JPAQueryFactory query;
+
+    public ItemQueryRepository(EntityManager em) {
+        this.query = new JPAQueryFactory(em);
+    }
+
+    public Page<ItemQueryDto> findCatalog(ItemCatalogSearch search) {
+        Pageable pageable = search.toPageable();
+        Predicate condition = ExpressionUtils.allOf(dtypeEq(search.getDtype()), nameStartsWith(search.getName()));
+
+        List<ItemQueryDto> content = query
+                .select(Projections.constructor(ItemQueryDto.class,
+                        item.id, item.name, item.price, item.stockQuantity, item.dtype))
+                .from(item)
+                .where(condition)
+                .orderBy(orderBy(search.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        // 마지막 페이지이거나 첫 페이지가 size보다 작으면 count 쿼리를 생략
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(condition));
+    }
+
+    private long count(Predicate condition) {
+        Long count = query
+                .select(item.count())
+                .from(item)
+                .where(condition)
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    private static BooleanExpression dtypeEq(String dtype) {
+        return StringUtils.hasText(dtype) ? item.dtype.eq(dtype) : null;
+    }
+
+    // 앞부분 일치는 idx_item_name 인덱스 범위 조회 (startsWith는 %, _를 escape 한다)
+    private static BooleanExpression nameStartsWith(String name) {
+        return StringUtils.hasText(name) ? item.name.startsWith(name.trim()) : null;
+    }
+
+    // 페이지 경계가 흔들리지 않도록 마지막에 항상 id
+    private static OrderSpecifier<?>[] orderBy(ItemCatalogSort sort) {
+        if (sort == null) {
+            sort = ItemCatalogSort.ID;
+        }
+        return switch (sort) {
+            case PRICE_ASC -> new OrderSpecifier<?>[]{item.price.asc(), item.id.asc()};
+            case PRICE_DESC -> new OrderSpecifier<?>[]{item.price.desc(), item.id.desc()};
+            case NAME -> new OrderSpecifier<?>[]{item.name.asc(), item.id.asc()};
+            case ID -> new OrderSpecifier<?>[]{item.id.asc()};
+        };
+    }
+}
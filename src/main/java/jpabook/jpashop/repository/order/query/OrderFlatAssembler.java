@@ -0,0 +1,37 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 플랫 데이터(OrderFlatDto) -> OrderQueryDto 조립
+ * order_id 순으로 정렬된 row를 한 번만 훑으면서 같은 order_id가 연속된 row를 주문 1건으로 접는다.
+ * groupingBy(HashMap)와 달리 DB 정렬 순서가 유지되고, 주문당 DTO를 1개만 만든다.
+ */
+public final class OrderFlatAssembler {
+
+    private OrderFlatAssembler() {
+    }
+
+    public static List<OrderQueryDto> assemble(Iterable<OrderFlatDto> flats) {
+        List<OrderQueryDto> result = new ArrayList<>();
+        // 같은 회원의 주문이 여러 건이면 회원 이름 문자열을 하나만 공유
+        Map<String, String> names = new HashMap<>();
+
+        OrderQueryDto current = null;
+        for (OrderFlatDto flat : flats) {
+            if (current == null || !current.getOrderId().equals(flat.getOrderId())) {
+                // 주문 정보(회원 이름, 배송지 등)는 주문의 첫 row에서 한 번만 가져온다.
+                String name = flat.getName() == null ? null : names.computeIfAbsent(flat.getName(), n -> n);
+                current = new OrderQueryDto(flat.getOrderId(), name, flat.getOrderDate(),
+                        flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+                result.add(current);
+            }
+            current.getOrderItems().add(new OrderItemQueryDto(flat.getOrderId(),
+                    flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+        }
+        return result;
+    }
+}
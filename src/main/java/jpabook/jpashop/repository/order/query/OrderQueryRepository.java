@@ -2,16 +2,26 @@ package jpabook.jpashop.repository.order.query;
 
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Slf4j
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    private static final int IN_CHUNK_SIZE = 512;
+
     private final EntityManager em;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
@@ -38,18 +48,81 @@ public class OrderQueryRepository {
         return result;
     }
 
+    // 전체 주문 스트리밍 조회 (export 용)
+    // getResultList()는 전체 결과를 힙에 List로 올리기 때문에 데이터가 많으면 OutOfMemory 발생.
+    // getResultStream() + JDBC fetch size로 커서처럼 앞으로만 읽으면서 chunkSize 단위로 잘라 넘긴다.
+    // chunk마다 orderItems는 V5처럼 in 쿼리 한번으로 채우고, 영속성 컨텍스트를 비워서 메모리를 일정하게 유지.
+    public void streamAllByDto(int chunkSize, Consumer<List<OrderQueryDto>> chunkConsumer) {
+        try (Stream<OrderQueryDto> orders = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " order by o.id", OrderQueryDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, chunkSize)
+                .getResultStream()) {
+
+            List<OrderQueryDto> chunk = new ArrayList<>(chunkSize);
+            Iterator<OrderQueryDto> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    flushChunk(chunk, chunkConsumer);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flushChunk(chunk, chunkConsumer);
+            }
+        }
+    }
+
+    private void flushChunk(List<OrderQueryDto> chunk, Consumer<List<OrderQueryDto>> chunkConsumer) {
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(chunk));
+        chunk.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+
+        chunkConsumer.accept(chunk);
+
+        chunk.clear();
+        em.clear();
+    }
+
+    // in 절에 order_id를 한 번에 다 넣으면 주문이 수만 건일 때 DB/드라이버의 파라미터 개수 제한에 걸리고
+    // 매번 다른 길이의 쿼리가 만들어져 실행 계획 캐시도 쓰지 못한다.
+    // -> IN_CHUNK_SIZE 단위로 잘라서 조회. 마지막 chunk는 in_clause_parameter_padding 설정으로
+    //    2의 거듭제곱 개수로 채워지므로 쿼리 모양이 몇 가지로 고정된다.
+    // chunk는 호출한 트랜잭션(커넥션)에서 순서대로 조회한다.
+    // 별도 스레드/트랜잭션으로 나누면 커넥션 풀을 더 잡아 고갈될 수 있고, chunk마다 다른 시점의 데이터를 읽게 된다.
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery(
+        long start = System.nanoTime();
+
+        List<OrderItemQueryDto> orderItems = new ArrayList<>();
+        List<Long> chunkMillis = new ArrayList<>();
+        for (int i = 0; i < orderIds.size(); i += IN_CHUNK_SIZE) {
+            long chunkStart = System.nanoTime();
+            orderItems.addAll(findOrderItems(orderIds.subList(i, Math.min(i + IN_CHUNK_SIZE, orderIds.size()))));
+            chunkMillis.add(elapsedMillis(chunkStart));
+        }
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
+                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
+
+        log.debug("orderItems in-query: orderIds={}, chunks={}, chunkMillis={}, totalMillis={}",
+                orderIds.size(), chunkMillis.size(), chunkMillis, elapsedMillis(start));
+        return orderItemMap;
+    }
+
+    private List<OrderItemQueryDto> findOrderItems(List<Long> orderIds) {
+        return em.createQuery(
                         "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
                                 " from OrderItem oi" +
                                 " join oi.item i" +
                                 " where oi.order.id in :orderIds", OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
                 .getResultList();
+    }
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
-        return orderItemMap;
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
     private static List<Long> toOrderIds(List<OrderQueryDto> result) {
@@ -79,6 +152,7 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
+    // OrderFlatAssembler가 한 번에 접을 수 있도록 order_id 순으로 정렬
     public List<OrderFlatDto> findAllByDto_flat() {
         return em.createQuery(
                 "select new" +
@@ -87,7 +161,48 @@ public class OrderQueryRepository {
                         " join o.member m" +
                         " join o.delivery d" +
                         " join o.orderItems oi" +
-                        " join oi.item i", OrderFlatDto.class)
+                        " join oi.item i" +
+                        " order by o.id", OrderFlatDto.class)
+                .getResultList();
+    }
+
+    // 플랫 조회 페이징
+    // 조인 결과(row)가 아니라 주문(order_id) 단위로 잘라야 하므로
+    // 먼저 해당 페이지의 order_id만 조회한 뒤 그 주문들만 플랫 조회한다.
+    public List<OrderFlatDto> findAllByDto_flat(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createQuery(
+                "select new" +
+                        " jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " join o.orderItems oi" +
+                        " join oi.item i" +
+                        " where o.id in :orderIds" +
+                        " order by o.id", OrderFlatDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    // offset 페이징용 order_id 조회
+    public List<Long> findOrderIds(int offset, int limit) {
+        return em.createQuery("select o.id from Order o order by o.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // keyset 페이징용 order_id 조회 (lastOrderId 이후부터)
+    public List<Long> findOrderIdsAfter(Long lastOrderId, int limit) {
+        if (lastOrderId == null) {
+            return findOrderIds(0, limit);
+        }
+        return em.createQuery("select o.id from Order o where o.id > :lastOrderId order by o.id", Long.class)
+                .setParameter("lastOrderId", lastOrderId)
+                .setMaxResults(limit)
                 .getResultList();
     }
 }
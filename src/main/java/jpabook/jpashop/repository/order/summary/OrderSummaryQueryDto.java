@@ -0,0 +1,29 @@
+package jpabook.jpashop.repository.order.summary;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderSummaryQueryDto {
+
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+    private int itemCount;
+    private int totalPrice;
+
+    public OrderSummaryQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address, int itemCount, int totalPrice) {
+        this.orderId = orderId;
+        this.name = name;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.address = address;
+        this.itemCount = itemCount;
+        this.totalPrice = totalPrice;
+    }
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.repository.order.summary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    // keyset 페이징: 주문일 최신순, 주문일이 같으면 order_id 역순
+    // 커서는 이전 페이지 마지막 order_id 하나이고, 그 주문의 주문일은 PK로 다시 읽는다. (order_date, order_id 인덱스 범위 조회)
+    private static final String AFTER_CURSOR =
+            " where s.orderDate < (select c.orderDate from OrderSummary c where c.orderId = :lastOrderId)" +
+            " or (s.orderDate = (select c.orderDate from OrderSummary c where c.orderId = :lastOrderId) and s.orderId < :lastOrderId)";
+
+    private final EntityManager em;
+
+    // id를 직접 넣는 엔티티라 merge(select 후 insert)가 되지 않도록 persist
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    // 조인 없이 order_summary 한 테이블만 읽음 (lastOrderId 이후 limit 건)
+    public List<OrderSimpleQueryDto> findOrderDtos(Long lastOrderId, int limit) {
+        return findPage("select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(s.orderId, s.memberName, s.orderDate, s.status, s.address)" +
+                " from OrderSummary s", OrderSimpleQueryDto.class, lastOrderId, limit);
+    }
+
+    public List<OrderSummaryQueryDto> findSummaryDtos(Long lastOrderId, int limit) {
+        return findPage("select new jpabook.jpashop.repository.order.summary.OrderSummaryQueryDto(s.orderId, s.memberName, s.orderDate, s.status, s.address, s.itemCount, s.totalPrice)" +
+                " from OrderSummary s", OrderSummaryQueryDto.class, lastOrderId, limit);
+    }
+
+    private <T> List<T> findPage(String select, Class<T> type, Long lastOrderId, int limit) {
+        String jpql = select;
+        if (lastOrderId != null) {
+            jpql += AFTER_CURSOR;
+        }
+        jpql += " order by s.orderDate desc, s.orderId desc";
+
+        TypedQuery<T> query = em.createQuery(jpql, type)
+                .setMaxResults(limit);
+        if (lastOrderId != null) {
+            query.setParameter("lastOrderId", lastOrderId);
+        }
+        return query.getResultList();
+    }
+
+    // 회원 이름이 바뀌면 해당 회원의 요약 row도 같이 변경 (벌크 연산)
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createQuery("update OrderSummary s set s.memberName = :memberName where s.memberId = :memberId")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * 요약 테이블 재생성 (기존 데이터 backfill)
+     * 원본 테이블에서 insert ... select 한 번으로 다시 채운다.
+     */
+    public int rebuild() {
+        nativeUpdate("delete from order_summary");
+        return nativeUpdate(
+                "insert into order_summary (order_id, member_id, member_name, order_date, status, city, street, zipcode, item_count, total_price)" +
+                        " select o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode," +
+                        " count(oi.order_item_id), coalesce(sum(oi.order_price * oi.count), 0)" +
+                        " from orders o" +
+                        " join member m on m.member_id = o.member_id" +
+                        " join delivery d on d.delivery_id = o.delivery_id" +
+                        " left join order_item oi on oi.order_id = o.order_id" +
+                        " group by o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode");
+    }
+
+    // 네이티브 쿼리는 어떤 테이블을 바꾸는지 알려주지 않으면 2차 캐시 전체를 비우므로 order_summary만 지정
+    private int nativeUpdate(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("order_summary")
+                .executeUpdate();
+    }
+}
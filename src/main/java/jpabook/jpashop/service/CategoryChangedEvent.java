@@ -0,0 +1,17 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+/**
+ * 카테고리 등록/이름 변경/이동 이벤트
+ * 트랜잭션 커밋 후 메모리에 있는 카테고리 트리를 다시 만드는 데 사용.
+ */
+@Getter
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+
+    public CategoryChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+}
@@ -0,0 +1,177 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 카테고리별(하위 카테고리 포함) 상품 수, 재고 합계, 최저/최고 가격 (메모리)
+ * 카테고리마다 Category.items를 로딩하지 않고 group by 쿼리 1번으로 전체를 계산해 둔다.
+ * - 주문/취소로 재고가 바뀌면(ItemStockChangedEvent) 그 상품이 포함된 카테고리들의 재고 합계만 더하고 뺀다.
+ * - 가격/상품/카테고리가 바뀌면 version을 올리고, 다음 조회 때 한 스레드가 다시 계산해서 통째로 바꾼다. (VersionedSnapshot)
+ * 다시 계산하는 동안 커밋된 재고 변경은 이전 집계에 반영되어 빠질 수 있으므로 refresh-interval마다 다시 계산한다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class CategoryRollupService {
+
+    /**
+     * 조회 결과 (상품이 없으면 가격은 null)
+     */
+    public record CategoryRollup(Long categoryId, long itemCount, long totalStock, Integer minPrice, Integer maxPrice) {
+    }
+
+    private final CategoryRepository categoryRepository;
+    private final VersionedSnapshot<Rollups> snapshot;
+
+    // 통계
+    private final AtomicLong stockUpdates = new AtomicLong();
+
+    public CategoryRollupService(CategoryRepository categoryRepository,
+                                 @Value("${jpashop.category-rollup.refresh-interval:5m}") Duration refreshInterval) {
+        this.categoryRepository = categoryRepository;
+        this.snapshot = new VersionedSnapshot<>("category rollups", this::build, refreshInterval);
+    }
+
+    public CategoryRollup find(Long categoryId) {
+        return snapshot.get().get(categoryId);
+    }
+
+    /**
+     * 여러 카테고리를 같은 집계 한 벌에서 조회 (카테고리 트리 화면)
+     */
+    public Map<Long, CategoryRollup> findAll(long[] categoryIds) {
+        Rollups rollups = snapshot.get();
+        Map<Long, CategoryRollup> result = new HashMap<>(categoryIds.length * 2);
+        for (long categoryId : categoryIds) {
+            result.put(categoryId, rollups.get(categoryId));
+        }
+        return result;
+    }
+
+    // 재고 증감은 집계에 바로 반영 (다시 계산하지 않음)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(ItemStockChangedEvent event) {
+        Rollups rollups = snapshot.peek();
+        if (rollups != null) {
+            rollups.addStock(event.getItemId(), event.getDelta());
+            stockUpdates.incrementAndGet();
+        }
+    }
+
+    // 가격, 재고 직접 변경(상품 수정), 상품 등록은 다시 계산
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onItemChanged(ItemChangedEvent event) {
+        snapshot.invalidate();
+    }
+
+    // 카테고리 등록/이동은 다시 계산
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        snapshot.invalidate();
+    }
+
+    public Map<String, Object> stats() {
+        Rollups rollups = snapshot.peek();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", snapshot.version());
+        result.put("rollupVersion", snapshot.snapshotVersion());
+        result.put("categories", rollups == null ? 0 : rollups.categoryIds.length);
+        result.put("items", rollups == null ? 0 : rollups.indexesByItem.size());
+        result.put("rebuilds", snapshot.rebuilds());
+        result.put("lastRebuildMillis", snapshot.lastRebuildMillis());
+        result.put("stockUpdates", stockUpdates.get());
+        return result;
+    }
+
+    private Rollups build(long version) {
+        Rollups rollups = new Rollups(categoryRepository.findRollupRows(), categoryRepository.findItemAncestorRows());
+        log.debug("category rollups built: version={}, categories={}, items={}", version, rollups.categoryIds.length, rollups.indexesByItem.size());
+        return rollups;
+    }
+
+    /**
+     * 집계 한 벌. 상품 수와 가격은 만든 뒤 바뀌지 않고, 재고 합계만 AtomicLongArray로 더하고 뺀다.
+     */
+    private static final class Rollups {
+
+        private static final int[] NO_INDEXES = new int[0];
+
+        private final long[] categoryIds;
+        private final long[] itemCounts;
+        private final AtomicLongArray totalStocks;
+        private final int[] minPrices;
+        private final int[] maxPrices;
+        private final Map<Long, Integer> indexByCategory;
+        private final Map<Long, int[]> indexesByItem; // 상품 -> 그 상품이 포함되는 카테고리 index 목록
+
+        Rollups(List<Object[]> rollupRows, List<Object[]> itemAncestorRows) {
+            int size = rollupRows.size();
+            this.categoryIds = new long[size];
+            this.itemCounts = new long[size];
+            this.totalStocks = new AtomicLongArray(size);
+            this.minPrices = new int[size];
+            this.maxPrices = new int[size];
+            this.indexByCategory = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                Object[] row = rollupRows.get(i);
+                categoryIds[i] = ((Number) row[0]).longValue();
+                itemCounts[i] = ((Number) row[1]).longValue();
+                totalStocks.set(i, ((Number) row[2]).longValue());
+                minPrices[i] = ((Number) row[3]).intValue();
+                maxPrices[i] = ((Number) row[4]).intValue();
+                indexByCategory.put(categoryIds[i], i);
+            }
+
+            // item_id 순으로 정렬되어 있으므로 같은 상품의 row를 모아서 배열로
+            this.indexesByItem = new HashMap<>();
+            int from = 0;
+            for (int r = 1; r <= itemAncestorRows.size(); r++) {
+                long itemId = ((Number) itemAncestorRows.get(from)[0]).longValue();
+                if (r < itemAncestorRows.size() && ((Number) itemAncestorRows.get(r)[0]).longValue() == itemId) {
+                    continue;
+                }
+                int[] indexes = new int[r - from];
+                int n = 0;
+                for (int k = from; k < r; k++) {
+                    // 두 쿼리 사이에 생긴 카테고리 연결은 집계에 없으므로 건너뜀 (다음 계산 때 반영)
+                    Integer index = indexByCategory.get(((Number) itemAncestorRows.get(k)[1]).longValue());
+                    if (index != null) {
+                        indexes[n++] = index;
+                    }
+                }
+                indexesByItem.put(itemId, n == indexes.length ? indexes : Arrays.copyOf(indexes, n));
+                from = r;
+            }
+        }
+
+        void addStock(Long itemId, int delta) {
+            for (int index : indexesByItem.getOrDefault(itemId, NO_INDEXES)) {
+                totalStocks.addAndGet(index, delta);
+            }
+        }
+
+        CategoryRollup get(Long categoryId) {
+            Integer index = indexByCategory.get(categoryId);
+            return index == null ? new CategoryRollup(categoryId, 0, 0, null, null) : at(index);
+        }
+
+        CategoryRollup at(int index) {
+            return new CategoryRollup(categoryIds[index], itemCounts[index], totalStocks.get(index), minPrices[index], maxPrices[index]);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 카테고리 등록 (parentId가 null이면 최상위)
+     */
+    @Transactional
+    public Long create(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        if (parentId != null) {
+            category.changeParent(findCategory(parentId));
+        }
+        categoryRepository.save(category);
+        categoryRepository.insertClosure(category.getId(), parentId);
+
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId())); // 커밋 후 카테고리 트리 갱신
+        return category.getId();
+    }
+
+    /**
+     * 이름 변경, 다른 부모로 이동 (parentId가 null이면 최상위로)
+     */
+    @Transactional
+    public void update(Long categoryId, String name, Long parentId) {
+        Category category = findCategory(categoryId);
+        category.setName(name);
+
+        Long oldParentId = category.getParent() == null ? null : category.getParent().getId();
+        if (!Objects.equals(oldParentId, parentId)) {
+            Category parent = parentId == null ? null : findCategory(parentId);
+            // 자기 자신이나 자기 하위 카테고리 밑으로는 옮길 수 없다.
+            if (parent != null && categoryRepository.isInSubtree(categoryId, parentId)) {
+                throw new IllegalArgumentException("하위 카테고리로 옮길 수 없습니다. categoryId=" + categoryId);
+            }
+            category.changeParent(parent);
+            categoryRepository.moveClosure(categoryId, parentId);
+        }
+
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId)); // 커밋 후 카테고리 트리 갱신
+    }
+
+    /**
+     * 하위 트리(자기 자신 포함)의 상품 목록 (closure 테이블 조인 1번, item_id 순 keyset 페이징)
+     */
+    public List<ItemQueryDto> findItemsInSubtree(Long categoryId, Long lastItemId, int size) {
+        findCategory(categoryId);
+        return categoryRepository.findItemsInSubtree(categoryId, lastItemId, size);
+    }
+
+    private Category findCategory(Long categoryId) {
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("카테고리가 없습니다. categoryId=" + categoryId);
+        }
+        return category;
+    }
+}
@@ -0,0 +1,229 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.CategoryRow;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 (불변, 배열 기반)
+ * 노드는 전위 순회(preorder) 순서의 번호(index)로 다룬다. 그래서 한 노드의 하위 트리는 [index, subtreeEnd) 구간에 연속으로 놓인다.
+ * 부모, 깊이, 경로, 자식 목록을 만들 때 한 번 계산해 두므로 읽을 때는 계산이나 쿼리가 없다.
+ * 만든 뒤에는 바뀌지 않으므로 여러 스레드가 락 없이 읽어도 된다. 카테고리가 바뀌면 새로 만들어서 통째로 바꾼다.
+ */
+public final class CategoryTree {
+
+    public static final String PATH_SEPARATOR = "/";
+
+    private final long version;
+    private final long[] ids;
+    private final String[] names;
+    private final int[] parents;      // 부모 index, 최상위면 -1
+    private final int[] depths;       // 최상위 0
+    private final String[] paths;     // 최상위부터 이름을 PATH_SEPARATOR로 연결
+    private final int[] subtreeEnds;  // 하위 트리 끝 (exclusive)
+    private final int[] childStarts;  // children[childStarts[i] .. childStarts[i + 1])가 i의 자식
+    private final int[] children;
+    private final int[] roots;
+    private final Map<Long, Integer> indexById;
+    private final int unreachable;    // 부모가 순환해서 최상위에서 닿지 않는 카테고리 수 (트리에서 제외)
+
+    private CategoryTree(long version, long[] ids, String[] names, int[] parents, int[] depths, String[] paths,
+                         int[] subtreeEnds, int[] childStarts, int[] children, int[] roots,
+                         Map<Long, Integer> indexById, int unreachable) {
+        this.version = version;
+        this.ids = ids;
+        this.names = names;
+        this.parents = parents;
+        this.depths = depths;
+        this.paths = paths;
+        this.subtreeEnds = subtreeEnds;
+        this.childStarts = childStarts;
+        this.children = children;
+        this.roots = roots;
+        this.indexById = indexById;
+        this.unreachable = unreachable;
+    }
+
+    /**
+     * 카테고리 목록(id 순)으로 트리 생성
+     */
+    public static CategoryTree build(long version, List<CategoryRow> rows) {
+        int rowCount = rows.size();
+        Map<Long, Integer> rowById = new HashMap<>(rowCount * 2);
+        for (int r = 0; r < rowCount; r++) {
+            rowById.put(rows.get(r).id(), r);
+        }
+
+        // 행 번호 기준 부모와 자식 수
+        int[] rowParents = new int[rowCount];
+        int[] rowChildCounts = new int[rowCount + 1];
+        int rootCount = 0;
+        for (int r = 0; r < rowCount; r++) {
+            Long parentId = rows.get(r).parentId();
+            Integer parent = parentId == null ? null : rowById.get(parentId);
+            rowParents[r] = parent == null ? -1 : parent;
+            if (parent == null) {
+                rootCount++;
+            } else {
+                rowChildCounts[parent + 1]++;
+            }
+        }
+        int[] rowChildStarts = prefixSum(rowChildCounts);
+        int[] rowChildren = new int[rowCount - rootCount];
+        int[] rootRows = new int[rootCount];
+        int[] fill = Arrays.copyOf(rowChildStarts, rowCount);
+        for (int r = 0, root = 0; r < rowCount; r++) {
+            if (rowParents[r] < 0) {
+                rootRows[root++] = r;
+            } else {
+                rowChildren[fill[rowParents[r]]++] = r;
+            }
+        }
+
+        // 최상위부터 전위 순회하면서 번호를 다시 매긴다. (형제는 id 순)
+        int[] order = new int[rowCount];      // index -> 행 번호
+        int[] indexOfRow = new int[rowCount]; // 행 번호 -> index
+        int size = 0;
+        int[] stack = new int[rowCount];
+        int top = 0;
+        for (int i = rootRows.length - 1; i >= 0; i--) {
+            stack[top++] = rootRows[i];
+        }
+        while (top > 0) {
+            int r = stack[--top];
+            indexOfRow[r] = size;
+            order[size++] = r;
+            for (int c = rowChildStarts[r + 1] - 1; c >= rowChildStarts[r]; c--) {
+                stack[top++] = rowChildren[c];
+            }
+        }
+
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        int[] parents = new int[size];
+        int[] depths = new int[size];
+        String[] paths = new String[size];
+        int[] childCounts = new int[size + 1];
+        Map<Long, Integer> indexById = new HashMap<>(size * 2);
+        int[] roots = new int[rootCount];
+        for (int i = 0, root = 0; i < size; i++) {
+            CategoryRow row = rows.get(order[i]);
+            ids[i] = row.id();
+            names[i] = row.name();
+            indexById.put(row.id(), i);
+            int parentRow = rowParents[order[i]];
+            if (parentRow < 0) {
+                parents[i] = -1;
+                depths[i] = 0;
+                paths[i] = row.name();
+                roots[root++] = i;
+            } else {
+                int parent = indexOfRow[parentRow]; // 전위 순회라 부모가 항상 먼저 처리됨
+                parents[i] = parent;
+                depths[i] = depths[parent] + 1;
+                paths[i] = paths[parent] + PATH_SEPARATOR + row.name();
+                childCounts[parent + 1]++;
+            }
+        }
+
+        int[] childStarts = prefixSum(childCounts);
+        int[] children = new int[Math.max(0, size - rootCount)];
+        int[] childFill = Arrays.copyOf(childStarts, size);
+        int[] subtreeEnds = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (parents[i] >= 0) {
+                children[childFill[parents[i]]++] = i;
+            }
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            subtreeEnds[i] = Math.max(subtreeEnds[i], i + 1);
+            if (parents[i] >= 0) {
+                subtreeEnds[parents[i]] = Math.max(subtreeEnds[parents[i]], subtreeEnds[i]);
+            }
+        }
+
+        return new CategoryTree(version, ids, names, parents, depths, paths,
+                subtreeEnds, childStarts, children, roots, indexById, rowCount - size);
+    }
+
+    // counts[0]은 0, counts[i + 1]은 i의 개수 -> 시작 위치
+    private static int[] prefixSum(int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+        return counts;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int unreachable() {
+        return unreachable;
+    }
+
+    /**
+     * 카테고리 id의 index (없으면 -1)
+     */
+    public int indexOf(Long categoryId) {
+        Integer index = categoryId == null ? null : indexById.get(categoryId);
+        return index == null ? -1 : index;
+    }
+
+    public boolean contains(Long categoryId) {
+        return indexOf(categoryId) >= 0;
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public int parent(int index) {
+        return parents[index];
+    }
+
+    public int depth(int index) {
+        return depths[index];
+    }
+
+    public String path(int index) {
+        return paths[index];
+    }
+
+    public int[] roots() {
+        return roots.clone();
+    }
+
+    public int[] children(int index) {
+        return Arrays.copyOfRange(children, childStarts[index], childStarts[index + 1]);
+    }
+
+    public int subtreeEnd(int index) {
+        return subtreeEnds[index];
+    }
+
+    /**
+     * ancestor의 하위 트리에 index가 있는지 (자기 자신 포함)
+     */
+    public boolean isInSubtree(int ancestor, int index) {
+        return ancestor <= index && index < subtreeEnds[ancestor];
+    }
+
+    /**
+     * 하위 트리의 카테고리 id 목록 (자기 자신 포함, 전위 순회 순서)
+     */
+    public long[] subtreeIds(int index) {
+        return Arrays.copyOfRange(ids, index, subtreeEnds[index]);
+    }
+}
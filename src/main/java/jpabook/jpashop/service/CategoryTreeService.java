@@ -0,0 +1,59 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 조회
+ * parent/child를 따라 지연 로딩하면 단계마다 쿼리가 나가므로, 전체 카테고리를 쿼리 1번으로 읽어 CategoryTree를 만들어 둔다.
+ * 카테고리 변경이 커밋되면 version만 올리고, 다음 조회 때 한 스레드가 새 트리를 만들어 통째로 바꾼다. (VersionedSnapshot)
+ * 새 트리를 만드는 동안 다른 스레드는 이전 트리를 그대로 읽는다.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryTreeService {
+
+    private final CategoryRepository categoryRepository;
+
+    private final VersionedSnapshot<CategoryTree> snapshot = new VersionedSnapshot<>("category tree", this::build, null);
+
+    public CategoryTree tree() {
+        return snapshot.get();
+    }
+
+    // 변경이 커밋된 경우에만 반영
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        snapshot.invalidate();
+    }
+
+    public Map<String, Object> stats() {
+        CategoryTree tree = snapshot.peek();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", snapshot.version());
+        result.put("treeVersion", tree == null ? null : tree.version());
+        result.put("categories", tree == null ? 0 : tree.size());
+        result.put("unreachable", tree == null ? 0 : tree.unreachable());
+        result.put("rebuilds", snapshot.rebuilds());
+        result.put("lastRebuildMillis", snapshot.lastRebuildMillis());
+        return result;
+    }
+
+    private CategoryTree build(long version) {
+        CategoryTree tree = CategoryTree.build(version, categoryRepository.findAllRows());
+        if (tree.unreachable() > 0) {
+            log.warn("category tree has cycles: {} categories are not reachable from a root", tree.unreachable());
+        }
+        return tree;
+    }
+}
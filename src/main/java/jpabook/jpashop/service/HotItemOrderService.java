@@ -0,0 +1,279 @@
+package jpabook.jpashop.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jpabook.jpashop.Exception.NotEnoughStockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 인기 상품(플래시 세일) 주문 처리
+ * 인기 상품으로 지정된 상품의 주문은 바로 트랜잭션을 열지 않고 상품별 큐에 넣는다.
+ * 상품마다 writer 스레드 1개가 큐에서 여러 건을 꺼내 한 트랜잭션으로 주문하고(OrderService.orderHotItem),
+ * 각 호출자에게 결과를 돌려준다. 같은 재고 row를 두고 커넥션 여러 개가 락을 기다리지 않게 된다.
+ * 인기 상품이 아니면 OrderService.order로 바로 주문한다.
+ */
+@Slf4j
+@Service
+public class HotItemOrderService {
+
+    // 배치 크기 분포 구간 (상한)
+    private static final int[] BATCH_SIZE_BUCKETS = {1, 10, 50, 100, 200, Integer.MAX_VALUE};
+
+    private final OrderService orderService;
+    private final List<Long> configuredItemIds;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final Duration timeout;
+
+    private final Map<Long, ItemWriter> writers = new ConcurrentHashMap<>();
+
+    public HotItemOrderService(OrderService orderService,
+                               @Value("${jpashop.hot-items.item-ids:}") List<Long> configuredItemIds,
+                               @Value("${jpashop.hot-items.queue-capacity:10000}") int queueCapacity,
+                               @Value("${jpashop.hot-items.max-batch-size:200}") int maxBatchSize,
+                               @Value("${jpashop.hot-items.timeout:10s}") Duration timeout) {
+        this.orderService = orderService;
+        this.configuredItemIds = configuredItemIds;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+    }
+
+    @PostConstruct
+    public void init() {
+        configuredItemIds.forEach(this::enable);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.keySet().forEach(this::disable);
+    }
+
+    /**
+     * 주문 (인기 상품이면 writer 큐를 거쳐서, 아니면 바로)
+     */
+    public Long order(Long memberId, Long itemId, int count) {
+        ItemWriter writer = writers.get(itemId);
+        if (writer == null || !writer.running) {
+            return orderService.order(memberId, itemId, count);
+        }
+
+        PendingOrder pending = writer.submit(new OrderLine(memberId, itemId, count));
+        try {
+            try {
+                return pending.result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // writer가 아직 가져가지 않았으면 먼저 선점해서 주문되지 않게 하고 실패로 응답
+                if (pending.claimed.compareAndSet(false, true)) {
+                    pending.result.cancel(false);
+                    throw new IllegalStateException("주문 처리 시간이 초과되었습니다. itemId=" + itemId, e);
+                }
+                // writer가 이미 배치에 넣었으면 커밋될 수 있으므로 실패로 응답하지 않고 결과를 기다린다.
+                return pending.result.get();
+            }
+        } catch (ExecutionException e) {
+            // 인기 상품 해제 중이라 큐에 들어가지 못한 주문은 바로 주문
+            if (e.getCause() instanceof WriterStoppedException) {
+                return orderService.order(memberId, itemId, count);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 인기 상품 지정
+    public void enable(Long itemId) {
+        writers.computeIfAbsent(itemId, ItemWriter::new);
+    }
+
+    // 인기 상품 해제: 큐에 남은 주문은 마저 처리하고 writer 종료
+    public void disable(Long itemId) {
+        ItemWriter writer = writers.remove(itemId);
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    /**
+     * 상품별 큐 길이, 배치 크기 분포, 커밋(트랜잭션) 시간
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        writers.forEach((itemId, writer) -> result.put(String.valueOf(itemId), writer.stats()));
+        return result;
+    }
+
+    private class ItemWriter implements Runnable {
+
+        private final Long itemId;
+        private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>(queueCapacity);
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        // 통계
+        private final AtomicLongArray batchSizes = new AtomicLongArray(BATCH_SIZE_BUCKETS.length);
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong orders = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong(); // 큐가 가득 차서 거절
+        private final AtomicLong commitNanos = new AtomicLong();
+        private final AtomicLong maxCommitNanos = new AtomicLong();
+
+        ItemWriter(Long itemId) {
+            this.itemId = itemId;
+            this.thread = new Thread(this, "hot-item-writer-" + itemId);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        PendingOrder submit(OrderLine line) {
+            PendingOrder pending = new PendingOrder(line, new CompletableFuture<>(), new AtomicBoolean());
+            if (!running) {
+                pending.result.completeExceptionally(new WriterStoppedException(itemId));
+                return pending;
+            }
+            if (!queue.offer(pending)) {
+                rejected.incrementAndGet();
+                pending.result.completeExceptionally(new IllegalStateException("주문이 많아 처리할 수 없습니다. itemId=" + itemId));
+                return pending;
+            }
+            // running 확인과 offer 사이에 stop()되어 writer가 이미 큐를 비우고 끝났을 수 있다.
+            // 큐에서 직접 꺼내는 데 성공하면 writer가 처리하지 않은 것이므로 여기서 완료한다.
+            if (!running && queue.remove(pending)) {
+                pending.result.completeExceptionally(new WriterStoppedException(itemId));
+            }
+            return pending;
+        }
+
+        void stop() {
+            running = false;
+            try {
+                thread.join(timeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    write(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } finally {
+                    batch.clear();
+                }
+            }
+            // 인터럽트로 끝난 경우 등 큐에 남은 주문은 완료시켜서 호출자가 timeout까지 기다리지 않게 한다.
+            PendingOrder pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result.completeExceptionally(new WriterStoppedException(itemId));
+            }
+        }
+
+        private void write(List<PendingOrder> batch) {
+            // 주문하기 전에 선점한다. 호출자가 timeout으로 먼저 선점한 주문은 이미 실패로 응답했으므로 주문하지 않는다.
+            batch.removeIf(pending -> !pending.claimed.compareAndSet(false, true));
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<OrderLine> lines = new ArrayList<>(batch.size());
+            for (PendingOrder pending : batch) {
+                lines.add(pending.line);
+            }
+
+            long start = System.nanoTime();
+            List<OrderLineResult> results;
+            try {
+                results = orderService.orderHotItem(itemId, lines);
+            } catch (RuntimeException e) {
+                log.warn("hot item batch failed: itemId={}, size={}", itemId, batch.size(), e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+                return;
+            }
+            record(batch.size(), System.nanoTime() - start);
+
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<Long> future = batch.get(i).result;
+                OrderLineResult result = results.get(i);
+                switch (result.getStatus()) {
+                    case ORDERED -> future.complete(result.getOrderId());
+                    case NOT_ENOUGH_STOCK -> future.completeExceptionally(new NotEnoughStockException(result.getMessage()));
+                    default -> future.completeExceptionally(new NoSuchElementException(result.getMessage()));
+                }
+            }
+        }
+
+        private void record(int batchSize, long elapsedNanos) {
+            int bucket = 0;
+            while (batchSize > BATCH_SIZE_BUCKETS[bucket]) {
+                bucket++;
+            }
+            batchSizes.incrementAndGet(bucket);
+            batches.incrementAndGet();
+            orders.addAndGet(batchSize);
+            commitNanos.addAndGet(elapsedNanos);
+            maxCommitNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            int lower = 1;
+            for (int i = 0; i < BATCH_SIZE_BUCKETS.length; i++) {
+                int upper = BATCH_SIZE_BUCKETS[i];
+                String label = upper == Integer.MAX_VALUE ? lower + "+" : lower == upper ? String.valueOf(upper) : lower + "-" + upper;
+                distribution.put(label, batchSizes.get(i));
+                lower = upper + 1;
+            }
+
+            long batchCount = batches.get();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("queueDepth", queue.size());
+            result.put("batches", batchCount);
+            result.put("orders", orders.get());
+            result.put("rejected", rejected.get());
+            result.put("batchSizeDistribution", distribution);
+            result.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) orders.get() / batchCount);
+            result.put("avgCommitMillis", batchCount == 0 ? 0.0 : commitNanos.get() / 1_000_000.0 / batchCount);
+            result.put("maxCommitMillis", maxCommitNanos.get() / 1_000_000.0);
+            return result;
+        }
+    }
+
+    // claimed: writer(주문 진행)와 timeout된 호출자(실패 응답) 중 먼저 선점한 쪽만 처리
+    private record PendingOrder(OrderLine line, CompletableFuture<Long> result, AtomicBoolean claimed) {
+    }
+
+    // writer가 종료 중이라 큐에 넣지 못함 (호출자는 바로 주문으로 처리)
+    private static class WriterStoppedException extends IllegalStateException {
+        WriterStoppedException(Long itemId) {
+            super("인기 상품 처리가 종료되었습니다. itemId=" + itemId);
+        }
+    }
+}
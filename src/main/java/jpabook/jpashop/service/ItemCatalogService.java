@@ -0,0 +1,50 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.item.query.ItemCatalogSearch;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import jpabook.jpashop.repository.item.query.ItemQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 상품 목록 (페이징, DTO 조회) + 목록 version
+ * 상품 등록/수정, 주문/취소로 인한 재고 변경이 커밋될 때마다 version이 올라간다.
+ * 화면은 version으로 ETag를 만들어서, 그 사이 바뀐 것이 없으면 DB 조회 없이 304로 응답한다.
+ * 재시작 전의 ETag와 겹치지 않도록 시작 시각부터 센다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ItemCatalogService {
+
+    private final ItemQueryRepository itemQueryRepository;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public Page<ItemQueryDto> findCatalog(ItemCatalogSearch search) {
+        return itemQueryRepository.findCatalog(search);
+    }
+
+    /**
+     * 목록을 조회하기 전에 읽어야 한다. (조회 후에 읽으면 조회 중 바뀐 내용이 빠진 목록에 새 version이 붙을 수 있음)
+     */
+    public long version() {
+        return version.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onItemChanged(ItemChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(ItemStockChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+/**
+ * 상품 등록/수정 이벤트 (이름, 가격 등 기준 정보 변경)
+ * 트랜잭션 커밋 후 메모리에 있는 상품 캐시를 무효화하는 데 사용.
+ */
+@Getter
+public class ItemChangedEvent {
+
+    private final Long itemId;
+
+    public ItemChangedEvent(Long itemId) {
+        this.itemId = itemId;
+    }
+}
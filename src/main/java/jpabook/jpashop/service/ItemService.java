@@ -4,6 +4,7 @@ import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +16,12 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId())); // 커밋 후 상품 캐시 무효화
     }
 
     @Transactional
@@ -28,10 +31,13 @@ public class ItemService {
         findItem.setName(itemDTO.getName());
         findItem.setPrice(itemDTO.getPrice());
         findItem.setStockQuantity(itemDTO.getStockQuantity());
+        itemRepository.changeStock(itemId, itemDTO.getStockQuantity()); // 재고는 변경 감지 대상이 아님
 
         // 실무에선
         // findItem.change(price, name, stockQuantity) 이런식으로
 
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId)); // 커밋 후 상품 캐시 무효화
+
     }
 
     public List<Item> findItems() {
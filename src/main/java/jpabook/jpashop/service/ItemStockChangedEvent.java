@@ -0,0 +1,19 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+/**
+ * 주문/주문 취소로 재고가 delta만큼 바뀐 이벤트 (감소면 음수)
+ * 트랜잭션 커밋 후 카테고리별 재고 합계 등을 갱신하는 데 사용.
+ */
+@Getter
+public class ItemStockChangedEvent {
+
+    private final Long itemId;
+    private final int delta;
+
+    public ItemStockChangedEvent(Long itemId, int delta) {
+        this.itemId = itemId;
+        this.delta = delta;
+    }
+}
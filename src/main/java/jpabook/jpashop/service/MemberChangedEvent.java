@@ -0,0 +1,29 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+/**
+ * 회원 가입/이름 변경 이벤트
+ * 트랜잭션 커밋 후 메모리에 있는 회원 이름 인덱스 등을 갱신하는 데 사용.
+ */
+@Getter
+public class MemberChangedEvent {
+
+    private final Long memberId;
+    private final String oldName; // 가입이면 null
+    private final String newName;
+
+    private MemberChangedEvent(Long memberId, String oldName, String newName) {
+        this.memberId = memberId;
+        this.oldName = oldName;
+        this.newName = newName;
+    }
+
+    public static MemberChangedEvent joined(Long memberId, String name) {
+        return new MemberChangedEvent(memberId, null, name);
+    }
+
+    public static MemberChangedEvent renamed(Long memberId, String oldName, String newName) {
+        return new MemberChangedEvent(memberId, oldName, newName);
+    }
+}
@@ -1,18 +1,51 @@
 package jpabook.jpashop.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameFilter;
+import jpabook.jpashop.repository.MemberNameView;
 import jpabook.jpashop.repository.MemberRepository;
-import lombok.RequiredArgsConstructor;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @Transactional(readOnly = true)
-@RequiredArgsConstructor
 public class MemberService {
 
+    private static final String COUNT_KEY = "count";
+
     private final MemberRepository memberRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MemberNameFilter memberNameFilter;
+    private final Cache<String, Long> memberCount;
+
+    public MemberService(MemberRepository memberRepository,
+                         OrderSummaryRepository orderSummaryRepository,
+                         ApplicationEventPublisher eventPublisher,
+                         MemberNameFilter memberNameFilter,
+                         @Value("${jpashop.member-count.ttl:1m}") Duration countTtl) {
+        this.memberRepository = memberRepository;
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.eventPublisher = eventPublisher;
+        this.memberNameFilter = memberNameFilter;
+        this.memberCount = Caffeine.newBuilder()
+                .expireAfterWrite(countTtl)
+                .build();
+    }
 
     /**
      * 회원가입
@@ -20,16 +53,29 @@ public class MemberService {
     @Transactional //변경
     public Long join(Member member) {
 
-        validateDuplicateMember(member); //중복 회원 검증
-        memberRepository.save(member);
+        validateDuplicateMember(member.getName()); //중복 회원 검증
+        try {
+            // 동시에 같은 이름으로 가입하면 둘 다 검증을 통과할 수 있으므로 unique 인덱스로 한 번 더 막는다.
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+
+        // 커밋 후 회원 이름 인덱스 갱신
+        eventPublisher.publishEvent(MemberChangedEvent.joined(member.getId(), member.getName()));
         return member.getId();
     }
 
-    private void validateDuplicateMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getName());
+    private void validateDuplicateMember(String name) {
+        // Bloom filter에 없는 이름은 확실히 새 이름이므로 DB 조회 생략
+        if (!memberNameFilter.mightContain(name)) {
+            return;
+        }
+        List<Member> findMembers = memberRepository.findByName(name);
         if (!findMembers.isEmpty()) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
+        memberNameFilter.recordFalsePositive();
     }
 
     /**
@@ -39,14 +85,57 @@ public class MemberService {
         return memberRepository.findAll();
     }
 
+    /**
+     * 회원 목록 (keyset 페이징, id/name projection)
+     */
+    public Slice<MemberNameView> findMemberNames(Long lastId, int size) {
+        return memberRepository.findByIdGreaterThanOrderByIdAsc(lastId == null ? 0L : lastId, PageRequest.ofSize(size));
+    }
+
+    /**
+     * 이름 앞부분으로 회원 검색 (id/name projection, 이름순 페이징)
+     */
+    public Slice<MemberNameView> searchMemberNames(String namePrefix, int page, int size) {
+        return memberRepository.findByNameStartingWithOrderByNameAsc(namePrefix == null ? "" : namePrefix.trim(),
+                PageRequest.of(Math.max(page, 0), size));
+    }
+
+    /**
+     * 전체 회원 수 (count-ttl 동안 캐시, 가입이 커밋되면 무효화)
+     */
+    public long countMembers() {
+        return memberCount.get(COUNT_KEY, key -> memberRepository.count());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMemberChanged(MemberChangedEvent event) {
+        if (event.getOldName() == null) { // 가입
+            memberCount.invalidate(COUNT_KEY);
+        }
+    }
+
     public Member findOne(Long memberId) {
         return memberRepository.findById(memberId).get();
     }
 
     @Transactional
-    public void update(Long id, String name) {
+    public Member update(Long id, String name) {
         //변경감지 사용, 영속성 부여
         Member member = memberRepository.findById(id).get();
+        String oldName = member.getName();
+        if (Objects.equals(name, oldName)) {
+            return member;
+        }
+        validateDuplicateMember(name);
         member.setName(name);
+        try {
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        orderSummaryRepository.updateMemberName(id, name); // 주문 요약 테이블의 회원 이름도 변경
+
+        eventPublisher.publishEvent(MemberChangedEvent.renamed(id, oldName, name));
+        return member;
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import lombok.Getter;
+
+/**
+ * 주문 생성/취소 이벤트
+ * 트랜잭션 커밋 후 조회 캐시(OrderReadCache)의 세대를 올리고 전체를 비우는 데 사용.
+ */
+@Getter
+public class OrderChangedEvent {
+
+    private final Long orderId;
+
+    private OrderChangedEvent(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    // 주문
+    public static OrderChangedEvent ordered(Order order) {
+        return new OrderChangedEvent(order.getId());
+    }
+
+    // 주문 취소
+    public static OrderChangedEvent canceled(Order order) {
+        return new OrderChangedEvent(order.getId());
+    }
+}
@@ -0,0 +1,42 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final byte NEW_LINE = '\n';
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 전체 주문 NDJSON export
+     * 주문 1건을 한 줄의 JSON으로 바로 출력 스트림에 쓴다. (전체 List를 만들지 않음)
+     */
+    public void exportNdjson(OutputStream out) {
+        orderQueryRepository.streamAllByDto(CHUNK_SIZE, chunk -> {
+            try {
+                for (OrderQueryDto order : chunk) {
+                    out.write(objectMapper.writeValueAsBytes(order));
+                    out.write(NEW_LINE);
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
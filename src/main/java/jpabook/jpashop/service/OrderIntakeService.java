@@ -0,0 +1,150 @@
+package jpabook.jpashop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jpabook.jpashop.Exception.OrderQueueFullException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 비동기 주문 접수
+ * 요청 스레드는 주문을 큐에 넣고 접수증(OrderTicket)만 돌려준다. (DB 커넥션을 기다리지 않음)
+ * worker들이 큐에서 꺼내 주문하고 접수증 상태를 바꾼다. 큐가 가득 차면 OrderQueueFullException (429)
+ * 접수증은 처리가 끝난 뒤 ticket-ttl 동안만 조회할 수 있고, 최대 ticket-maximum-size개까지만 보관한다.
+ * (한꺼번에 몰리면 오래된 접수증부터 밀려나 조회되지 않을 수 있다.)
+ * worker 스레드는 orderIntakeThreadFactory 빈으로 만든다. (virtual 프로필이면 가상 스레드)
+ */
+@Slf4j
+@Service
+public class OrderIntakeService {
+
+    private final OrderService orderService;
+    private final HotItemOrderService hotItemOrderService;
+    private final ThreadFactory threadFactory;
+    private final BlockingQueue<OrderTicket> queue;
+    private final Cache<String, OrderTicket> tickets;
+    private final int workerCount;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public OrderIntakeService(OrderService orderService,
+                              HotItemOrderService hotItemOrderService,
+                              @Qualifier("orderIntakeThreadFactory") ThreadFactory threadFactory,
+                              @Value("${jpashop.order-intake.queue-capacity:1000}") int queueCapacity,
+                              @Value("${jpashop.order-intake.workers:16}") int workerCount,
+                              @Value("${jpashop.order-intake.ticket-ttl:10m}") Duration ticketTtl,
+                              @Value("${jpashop.order-intake.ticket-maximum-size:100000}") long ticketMaximumSize) {
+        this.orderService = orderService;
+        this.hotItemOrderService = hotItemOrderService;
+        this.threadFactory = threadFactory;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(ticketMaximumSize)
+                .expireAfterWrite(ticketTtl)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::drain);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * 주문 접수 (큐가 가득 차면 OrderQueueFullException)
+     */
+    public OrderTicket submit(Long memberId, Map<Long, Integer> itemCounts) {
+        OrderTicket ticket = new OrderTicket(memberId, itemCounts);
+        if (!running || !queue.offer(ticket)) {
+            rejected.incrementAndGet();
+            throw new OrderQueueFullException("주문 접수 대기열이 가득 찼습니다.");
+        }
+        tickets.put(ticket.getId(), ticket);
+        accepted.incrementAndGet();
+        return ticket;
+    }
+
+    public OrderTicket findTicket(String ticketId) {
+        return tickets.getIfPresent(ticketId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queueDepth", queue.size());
+        result.put("queueRemainingCapacity", queue.remainingCapacity());
+        result.put("workers", workerCount);
+        result.put("accepted", accepted.get());
+        result.put("rejected", rejected.get());
+        result.put("completed", completed.get());
+        result.put("failed", failed.get());
+        return result;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            OrderTicket ticket;
+            try {
+                ticket = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (ticket != null) {
+                process(ticket);
+            }
+        }
+    }
+
+    private void process(OrderTicket ticket) {
+        ticket.processing();
+        try {
+            Long orderId;
+            if (ticket.getItemCounts().size() == 1) {
+                // 상품 1개면 인기 상품 writer를 거칠 수 있도록 단건 주문으로
+                Map.Entry<Long, Integer> line = ticket.getItemCounts().entrySet().iterator().next();
+                orderId = hotItemOrderService.order(ticket.getMemberId(), line.getKey(), line.getValue());
+            } else {
+                orderId = orderService.orderItems(ticket.getMemberId(), ticket.getItemCounts());
+            }
+            ticket.completed(orderId);
+            completed.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.debug("order ticket failed: ticketId={}", ticket.getId(), e);
+            ticket.failed(e.getClass().getSimpleName() + ": " + e.getMessage());
+            failed.incrementAndGet();
+        }
+        tickets.put(ticket.getId(), ticket); // 처리 완료 시점부터 ttl
+    }
+}
@@ -0,0 +1,30 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 대량 주문의 주문 1줄 처리 결과
+ * 실패한 줄이 있어도 나머지 줄은 그대로 주문된다.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderLineResult {
+
+    public enum Status {
+        ORDERED, MEMBER_NOT_FOUND, ITEM_NOT_FOUND, NOT_ENOUGH_STOCK
+    }
+
+    private int line; // 요청 순서 (0부터)
+    private Status status;
+    private Long orderId; // 성공한 경우에만
+    private String message;
+
+    static OrderLineResult ordered(int line, Long orderId) {
+        return new OrderLineResult(line, Status.ORDERED, orderId, null);
+    }
+
+    static OrderLineResult failed(int line, Status status, String message) {
+        return new OrderLineResult(line, status, null, message);
+    }
+}
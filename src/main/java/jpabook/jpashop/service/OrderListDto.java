@@ -0,0 +1,35 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 화면 한 줄 (불변)
+ * 트랜잭션 안에서 엔티티로부터 만들어 OrderReadCache에 담는다. (엔티티를 캐시에 담아 여러 요청이 공유하지 않도록)
+ */
+@Getter
+public class OrderListDto {
+
+    private final Long orderId;
+    private final String memberName;
+    private final String itemName;   // 대표상품 (첫 번째 주문상품)
+    private final int orderPrice;
+    private final int count;
+    private final OrderStatus status;
+    private final LocalDateTime orderDate;
+
+    public OrderListDto(Order order) {
+        this.orderId = order.getId();
+        this.memberName = order.getMember().getName();
+        OrderItem first = order.getOrderItems().isEmpty() ? null : order.getOrderItems().get(0);
+        this.itemName = first == null ? null : first.getItem().getName();
+        this.orderPrice = first == null ? 0 : first.getOrderPrice();
+        this.count = first == null ? 0 : first.getCount();
+        this.status = order.getStatus();
+        this.orderDate = order.getOrderDate();
+    }
+}
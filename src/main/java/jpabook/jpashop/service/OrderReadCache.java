@@ -0,0 +1,107 @@
+package jpabook.jpashop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 주문 조회 결과 캐시
+ * 주문/취소, 회원 이름 변경, 상품 변경이 커밋되기 전까지의 조회는 캐시된 결과를 돌려준다.
+ * 여러 요청이 같은 값을 공유하므로 엔티티가 아니라 불변 DTO(목록)만 담는다.
+ * 크기(maximum-size)와 TTL로 오래된 항목을 정리한다.
+ *
+ * 무효화는 세대(generation) 번호로 한다. 변경이 커밋되면 세대를 올리고 전체를 비운다.
+ * 값은 로딩을 시작할 때의 세대와 함께 저장되므로, 무효화 전에 시작된 로딩이 무효화 후에 저장되어도
+ * 다음 조회에서 이전 세대 값으로 판단해 다시 로딩한다.
+ */
+@Slf4j
+@Component
+public class OrderReadCache {
+
+    private record Entry(long generation, Object value) {
+    }
+
+    private final Cache<OrderReadCacheKey, Entry> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong staleReloads = new AtomicLong();
+
+    public OrderReadCache(@Value("${jpashop.order-cache.maximum-size:1000}") long maximumSize,
+                          @Value("${jpashop.order-cache.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(OrderReadCacheKey key, Supplier<T> loader) {
+        long current = generation.get(); // 로딩 전에 읽는다.
+        Entry entry = cache.get(key, k -> new Entry(current, loader.get()));
+        if (entry.generation() >= current) {
+            return (T) entry.value();
+        }
+
+        // 이전 세대 값 (무효화 전에 시작된 로딩이 나중에 저장됨): 다시 로딩, 더 새로운 값이 있으면 덮어쓰지 않음
+        staleReloads.incrementAndGet();
+        Entry fresh = new Entry(current, loader.get());
+        cache.asMap().merge(key, fresh, (old, loaded) -> old.generation() >= loaded.generation() ? old : loaded);
+        return (T) fresh.value();
+    }
+
+    // 롤백된 변경은 조회 결과에 영향이 없으므로 커밋된 경우에만 무효화
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        invalidateAll("order " + event.getOrderId());
+    }
+
+    // 주문 목록에 회원 이름이 들어가므로 이름 변경 시 무효화 (가입은 기존 주문에 영향 없음)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMemberChanged(MemberChangedEvent event) {
+        if (event.getOldName() != null) {
+            invalidateAll("member " + event.getMemberId());
+        }
+    }
+
+    // 주문 목록에 상품 이름이 들어가므로 상품 수정 시 무효화
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidateAll("item " + event.getItemId());
+    }
+
+    private void invalidateAll(String cause) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        invalidations.incrementAndGet();
+        log.debug("order cache invalidated: {}", cause);
+    }
+
+    /**
+     * 캐시 통계 (hit/miss/eviction)
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("generation", generation.get());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("invalidationCount", invalidations.get());
+        result.put("staleReloadCount", staleReloads.get());
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.MemberNameMatch;
+import jpabook.jpashop.repository.OrderSearch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.StringUtils;
+
+/**
+ * 주문 조회 캐시 키 (조회 종류 + 검색 조건)
+ */
+public record OrderReadCacheKey(Type type, OrderStatus orderStatus, String memberName,
+                                MemberNameMatch memberNameMatch, Pageable pageable) {
+
+    public enum Type {
+        ORDERS_V4, ORDERS_V5, SIMPLE_ORDERS_V4, ORDER_SEARCH
+    }
+
+    public static OrderReadCacheKey of(Type type) {
+        return new OrderReadCacheKey(type, null, null, null, null);
+    }
+
+    public static OrderReadCacheKey search(OrderSearch orderSearch) {
+        String memberName = StringUtils.hasText(orderSearch.getMemberName()) ? orderSearch.getMemberName() : null;
+        return new OrderReadCacheKey(Type.ORDER_SEARCH, orderSearch.getOrderStatus(), memberName,
+                orderSearch.getMemberNameMatch(), orderSearch.toPageable());
+    }
+}
@@ -6,20 +6,42 @@ import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.service.ReferenceDataCache.ItemRef;
+import jpabook.jpashop.service.ReferenceDataCache.MemberRef;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class OrderService {
 
+    // 대량 주문 시 이 건수마다 flush (hibernate.jdbc.batch_size의 배수)
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderReadCache orderReadCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * 주문
@@ -27,16 +49,20 @@ public class OrderService {
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
 
-        // 엔티티 조회
-        Member member = memberRepository.findById(memberId).get();
-        Item item = itemRepository.findOne(itemId);
+        // 회원 이름/주소, 상품 가격은 near cache에서 가져오고 엔티티는 프록시(FK)만 사용 -> 조회 쿼리 없음
+        MemberRef memberRef = referenceDataCache.member(memberId);
+        ItemRef itemRef = referenceDataCache.item(itemId);
+        Member member = memberRepository.getReferenceById(memberId);
+        Item item = itemRepository.getReference(itemId);
 
         // 배송정보 생성
         Delivery delivery = new Delivery();
-        delivery.setAddress(member.getAddress()); // 실제로는 배송지 정보를 입력함.
+        delivery.setAddress(memberRef.address()); // 실제로는 배송지 정보를 입력함.
 
         // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = OrderItem.createOrderItem(item, itemRef.price(), count);
+        // 재고는 DB에서 원자적으로 감소 (재고가 부족하면 NotEnoughStockException)
+        itemRepository.decreaseStock(itemId, count);
 
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
@@ -48,9 +74,194 @@ public class OrderService {
         // 1. 서로 1개의 관계를 가지고 있음. 2. persist 라이프 사이클이 완전히 동일함.
         // 위 두 가지 경우에는 CASCADE=ALL을 사용해도 좋다.
 
+        // 조회용 요약 테이블도 같은 트랜잭션에서 저장
+        orderSummaryRepository.save(OrderSummary.createOrderSummary(order, memberRef.name()));
+
+        // 커밋 후 조회 캐시 무효화
+        eventPublisher.publishEvent(OrderChangedEvent.ordered(order));
+
         return order.getId();
     }
 
+    /**
+     * 여러 상품 주문 (장바구니)
+     * 상품은 in 쿼리 한 번으로 조회하고, 재고 감소(조건부 update = row 락)는 상품 id 오름차순으로 한다.
+     * 모든 트랜잭션이 같은 순서로 락을 잡으므로 장바구니끼리 서로의 락을 기다리는 교착 상태가 생기지 않는다.
+     * 한 상품이라도 재고가 부족하면 NotEnoughStockException으로 주문 전체가 롤백된다.
+     *
+     * @param itemCounts 상품 id -> 수량
+     **/
+    @Transactional
+    public Long orderItems(Long memberId, Map<Long, Integer> itemCounts) {
+        if (itemCounts.isEmpty()) {
+            throw new IllegalArgumentException("주문할 상품이 없습니다.");
+        }
+        Member member = memberRepository.findById(memberId).get();
+
+        SortedMap<Long, Integer> sorted = new TreeMap<>(itemCounts);
+        Map<Long, Item> items = itemRepository.findAllByIds(sorted.keySet()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<OrderItem> orderItems = new ArrayList<>(sorted.size());
+        for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+            Item item = items.get(entry.getKey());
+            if (item == null) {
+                throw new IllegalArgumentException("상품이 없습니다. id=" + entry.getKey());
+            }
+            orderItems.add(OrderItem.createOrderItem(item, item.getPrice(), entry.getValue()));
+            itemRepository.decreaseStock(item.getId(), entry.getValue());
+        }
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, orderItems.toArray(new OrderItem[0]));
+        saveOrder(order);
+        return order.getId();
+    }
+
+    /**
+     * 대량 주문
+     * 회원, 상품을 in 쿼리로 한 번에 조회하고, 재고는 상품별로 모아서 상품마다 row를 한 번 잠그고
+     * 남은 재고 안에서 앞 줄부터 받아들인 뒤 받아들인 수량 합계로 조건부 update 한 번만 한다.
+     * (줄마다 update 하면 update, 커밋 후 캐시 제거, 재고 이벤트가 줄 수만큼 생긴다.)
+     * 주문은 한 트랜잭션에서 FLUSH_CHUNK_SIZE 건씩 batch insert 한다.
+     * 재고 부족 등으로 실패한 줄은 결과에만 남기고 나머지 줄은 계속 주문한다.
+     **/
+    @Transactional
+    public List<OrderLineResult> orderBatch(List<OrderLine> lines) {
+        Map<Long, Member> members = memberRepository.findAllById(distinct(lines, OrderLine::getMemberId)).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        Map<Long, Item> items = itemRepository.findAllByIds(distinct(lines, OrderLine::getItemId)).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        // 1. 회원, 상품 확인 후 상품별로 줄 번호 모으기 (상품 id 순으로 잠가서 다른 대량 주문과 교착되지 않게)
+        OrderLineResult[] results = new OrderLineResult[lines.size()];
+        SortedMap<Long, List<Integer>> linesByItem = new TreeMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            if (!members.containsKey(line.getMemberId())) {
+                results[i] = OrderLineResult.failed(i, OrderLineResult.Status.MEMBER_NOT_FOUND, "회원이 없습니다. id=" + line.getMemberId());
+            } else if (!items.containsKey(line.getItemId())) {
+                results[i] = OrderLineResult.failed(i, OrderLineResult.Status.ITEM_NOT_FOUND, "상품이 없습니다. id=" + line.getItemId());
+            } else {
+                linesByItem.computeIfAbsent(line.getItemId(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        // 2. 상품마다 DB 재고로 받아들일 줄을 정하고 재고는 update 한 번으로 차감 (주문 상품을 만들기 전에 확인)
+        boolean[] accepted = new boolean[lines.size()];
+        for (Map.Entry<Long, List<Integer>> entry : linesByItem.entrySet()) {
+            Long itemId = entry.getKey();
+            int available = itemRepository.findStockForUpdate(itemId);
+            items.get(itemId).setStockQuantity(available); // 2차 캐시에서 온 값일 수 있으므로 DB 값으로 맞춤
+
+            int total = 0;
+            for (int i : entry.getValue()) {
+                int count = lines.get(i).getCount();
+                if (count > available - total) {
+                    results[i] = OrderLineResult.failed(i, OrderLineResult.Status.NOT_ENOUGH_STOCK, "need more stock");
+                    continue;
+                }
+                accepted[i] = true;
+                total += count;
+            }
+            if (total > 0) {
+                itemRepository.decreaseStock(itemId, total);
+            }
+        }
+
+        // 3. 받아들인 줄만 원래 순서대로 주문 생성
+        List<Object> chunk = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (!accepted[i]) {
+                continue;
+            }
+            OrderLine line = lines.get(i);
+            Member member = members.get(line.getMemberId());
+            Item item = items.get(line.getItemId());
+
+            OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), line.getCount());
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            Order order = Order.createOrder(member, delivery, orderItem);
+
+            OrderSummary summary = saveOrder(order);
+            results[i] = OrderLineResult.ordered(i, order.getId());
+
+            chunk.add(order);
+            chunk.add(summary);
+            if (chunk.size() >= FLUSH_CHUNK_SIZE * 2) {
+                // 회원, 상품은 계속 사용하므로 저장이 끝난 주문만 분리
+                orderRepository.flushAndDetach(chunk);
+                chunk.clear();
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 인기 상품 주문 (HotItemOrderService의 상품별 writer 스레드에서만 호출)
+     * 상품 재고 row를 한 번 잠그고 남은 재고 안에서 앞 줄부터 받아들인 뒤,
+     * 재고는 받아들인 수량 합계로 update 한 번만 하고 주문은 batch insert 한다.
+     **/
+    @Transactional
+    public List<OrderLineResult> orderHotItem(Long itemId, List<OrderLine> lines) {
+        List<OrderLineResult> results = new ArrayList<>(lines.size());
+        Item item = itemRepository.findOne(itemId);
+        if (item == null) {
+            for (int i = 0; i < lines.size(); i++) {
+                results.add(OrderLineResult.failed(i, OrderLineResult.Status.ITEM_NOT_FOUND, "상품이 없습니다. id=" + itemId));
+            }
+            return results;
+        }
+        Map<Long, Member> members = memberRepository.findAllById(distinct(lines, OrderLine::getMemberId)).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+
+        // 커밋까지 다른 트랜잭션(일반 주문, 취소)이 재고를 바꾸지 못하게 잠근다.
+        int available = itemRepository.findStockForUpdate(itemId);
+        item.setStockQuantity(available); // 2차 캐시에서 온 값일 수 있으므로 DB 값으로 맞춤
+
+        int accepted = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            OrderLine line = lines.get(i);
+            Member member = members.get(line.getMemberId());
+            if (member == null) {
+                results.add(OrderLineResult.failed(i, OrderLineResult.Status.MEMBER_NOT_FOUND, "회원이 없습니다. id=" + line.getMemberId()));
+                continue;
+            }
+            if (line.getCount() > item.getStockQuantity()) {
+                results.add(OrderLineResult.failed(i, OrderLineResult.Status.NOT_ENOUGH_STOCK, "need more stock"));
+                continue;
+            }
+
+            OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), line.getCount());
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            Order order = Order.createOrder(member, delivery, orderItem);
+            saveOrder(order);
+            results.add(OrderLineResult.ordered(i, order.getId()));
+            accepted += line.getCount();
+        }
+
+        if (accepted > 0) {
+            itemRepository.decreaseStock(itemId, accepted);
+        }
+        return results;
+    }
+
+    // 주문 + 조회용 요약 저장, 커밋 후 조회 캐시 무효화 이벤트
+    private OrderSummary saveOrder(Order order) {
+        orderRepository.save(order);
+        OrderSummary summary = OrderSummary.createOrderSummary(order);
+        orderSummaryRepository.save(summary);
+        eventPublisher.publishEvent(OrderChangedEvent.ordered(order));
+        return summary;
+    }
+
+    private static Set<Long> distinct(List<OrderLine> lines, Function<OrderLine, Long> id) {
+        return lines.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
     /**
      * 주문 취소
      **/
@@ -60,6 +271,19 @@ public class OrderService {
         Order order = orderRepository.findOne(orderId);
         // 주문 취소
         order.cancel();
+        // 재고 row는 주문(orderItems, orderBatch)과 같이 상품 id 순으로 잠가서 교착을 피한다. (같은 상품은 합쳐서 한 번)
+        SortedMap<Long, Integer> itemCounts = new TreeMap<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            itemCounts.merge(orderItem.getItem().getId(), orderItem.getCount(), Integer::sum);
+        }
+        itemCounts.forEach(itemRepository::increaseStock);
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+        if (summary != null) { // 요약 테이블 도입 전 주문은 rebuild 전까지 없을 수 있음
+            summary.cancel();
+        }
+
+        // 커밋 후 조회 캐시 무효화
+        eventPublisher.publishEvent(OrderChangedEvent.canceled(order));
 
         // JPA의 장점이 여기서 나옴.
         // 주문 취소를 예시로 들면 실제 데이터베이서의 update 쿼리를 날려서 주문 상태를 변경하지 않더라도
@@ -68,8 +292,10 @@ public class OrderService {
     }
 
     // 검색
-    public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAll(orderSearch);
+    // 캐시는 여러 요청이 공유하므로 엔티티가 아니라 트랜잭션 안에서 만든 불변 DTO를 담는다.
+    public Page<OrderListDto> findOrders(OrderSearch orderSearch) {
+        return orderReadCache.get(OrderReadCacheKey.search(orderSearch),
+                () -> orderRepository.findAll(orderSearch).map(OrderListDto::new));
     }
 
 }
@@ -0,0 +1,27 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    /**
+     * 주문 요약 테이블 재생성
+     * 요약 테이블을 처음 도입하거나 데이터가 어긋났을 때 원본 주문 데이터로 다시 채운다.
+     */
+    @Transactional
+    public int rebuild() {
+        int count = orderSummaryRepository.rebuild();
+        log.info("order_summary rebuilt: rows={}", count);
+        return count;
+    }
+}
@@ -0,0 +1,51 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 비동기 주문 접수증
+ * 접수(ACCEPTED) -> 처리 중(PROCESSING) -> 완료(COMPLETED) 또는 실패(FAILED)
+ * 상태는 worker 스레드가 바꾸고 조회 API가 읽으므로 volatile
+ */
+@Getter
+public class OrderTicket {
+
+    public enum Status {
+        ACCEPTED, PROCESSING, COMPLETED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long memberId;
+    private final Map<Long, Integer> itemCounts;
+    private final LocalDateTime acceptedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.ACCEPTED;
+    private volatile Long orderId;
+    private volatile String error;
+    private volatile LocalDateTime completedAt;
+
+    OrderTicket(Long memberId, Map<Long, Integer> itemCounts) {
+        this.memberId = memberId;
+        this.itemCounts = Map.copyOf(itemCounts);
+    }
+
+    void processing() {
+        this.status = Status.PROCESSING;
+    }
+
+    void completed(Long orderId) {
+        this.orderId = orderId;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+}
@@ -0,0 +1,126 @@
+package jpabook.jpashop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 주문에 필요한 회원/상품 기준 정보 near cache (애플리케이션 메모리)
+ * 회원 이름, 주소와 상품 이름, 가격만 들고 있다. 재고는 자주 바뀌므로 캐시하지 않는다. (ItemRepository의 조건부 update)
+ * 회원 정보 변경, 상품 등록/수정이 커밋되면 해당 항목을 무효화하고, ttl은 놓친 변경에 대한 안전장치.
+ */
+@Component
+public class ReferenceDataCache {
+
+    public record MemberRef(Long id, String name, Address address, long loadedAt) {
+    }
+
+    public record ItemRef(Long id, String name, int price, long loadedAt) {
+    }
+
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final Cache<Long, MemberRef> members;
+    private final Cache<Long, ItemRef> items;
+
+    // staleness: 캐시에서 돌려준 값이 로딩된 지 얼마나 지났는지
+    private final AtomicLong servedAgeMillis = new AtomicLong();
+    private final AtomicLong maxServedAgeMillis = new AtomicLong();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ReferenceDataCache(MemberRepository memberRepository,
+                              ItemRepository itemRepository,
+                              @Value("${jpashop.reference-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${jpashop.reference-cache.ttl:5m}") Duration ttl) {
+        this.memberRepository = memberRepository;
+        this.itemRepository = itemRepository;
+        this.members = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public MemberRef member(Long memberId) {
+        MemberRef ref = members.get(memberId, id -> {
+            Member member = memberRepository.findById(id).get();
+            return new MemberRef(member.getId(), member.getName(), member.getAddress(), System.currentTimeMillis());
+        });
+        recordAge(ref.loadedAt());
+        return ref;
+    }
+
+    public ItemRef item(Long itemId) {
+        ItemRef ref = items.get(itemId, id -> {
+            Item item = itemRepository.findOne(id);
+            if (item == null) {
+                throw new IllegalArgumentException("상품이 없습니다. id=" + id);
+            }
+            return new ItemRef(item.getId(), item.getName(), item.getPrice(), System.currentTimeMillis());
+        });
+        recordAge(ref.loadedAt());
+        return ref;
+    }
+
+    // 롤백된 변경은 반영하지 않도록 커밋된 경우에만 무효화
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMemberChanged(MemberChangedEvent event) {
+        members.invalidate(event.getMemberId());
+        invalidations.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onItemChanged(ItemChangedEvent event) {
+        items.invalidate(event.getItemId());
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("members", stats(members));
+        result.put("items", stats(items));
+        result.put("invalidationCount", invalidations.get());
+        long servedCount = served.get();
+        result.put("avgAgeMillis", servedCount == 0 ? 0.0 : (double) servedAgeMillis.get() / servedCount);
+        result.put("maxAgeMillis", maxServedAgeMillis.get());
+        return result;
+    }
+
+    private static Map<String, Object> stats(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    private void recordAge(long loadedAt) {
+        long age = System.currentTimeMillis() - loadedAt;
+        served.incrementAndGet();
+        servedAgeMillis.addAndGet(age);
+        maxServedAgeMillis.accumulateAndGet(age, Math::max);
+    }
+}
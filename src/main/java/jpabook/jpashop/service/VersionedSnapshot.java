@@ -0,0 +1,114 @@
+package jpabook.jpashop.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * version으로 관리하는 메모리 스냅샷 (CategoryTreeService, CategoryRollupService)
+ * 변경이 커밋되면 invalidate()로 version만 올리고, 다음 get() 때 한 스레드가 loader로 새로 만들어 통째로 바꾼다.
+ * 새로 만드는 동안 다른 스레드는 기다리지 않고 이전 스냅샷을 읽는다. (처음 한 번은 만들어질 때까지 기다림)
+ * maxAge가 있으면 version이 같아도 그 시간이 지나면 다시 만든다.
+ */
+@Slf4j
+final class VersionedSnapshot<T> {
+
+    private record Built<T>(long version, long builtAt, T value) {
+    }
+
+    private final String name;
+    private final LongFunction<T> loader; // 만들 때 기준 version을 받아 새 스냅샷 생성
+    private final long maxAgeNanos; // 0이면 version이 같은 동안 계속 사용
+
+    private final AtomicReference<Built<T>> current = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // 통계
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong lastRebuildMillis = new AtomicLong();
+
+    VersionedSnapshot(String name, LongFunction<T> loader, Duration maxAge) {
+        this.name = name;
+        this.loader = loader;
+        this.maxAgeNanos = maxAge == null ? 0 : maxAge.toNanos();
+    }
+
+    T get() {
+        Built<T> built = current.get();
+        if (built != null && isFresh(built)) {
+            return built.value();
+        }
+        // 처음이 아니면 다른 스레드가 만드는 중일 때 기다리지 않고 이전 스냅샷 사용
+        if (built != null && !rebuildLock.tryLock()) {
+            return built.value();
+        }
+        if (built == null) {
+            rebuildLock.lock();
+        }
+        try {
+            return rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * 현재 스냅샷 (아직 없으면 null, 새로 만들지 않음)
+     */
+    T peek() {
+        Built<T> built = current.get();
+        return built == null ? null : built.value();
+    }
+
+    void invalidate() {
+        version.incrementAndGet();
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    // 현재 스냅샷을 만든 기준 version (없으면 null)
+    Long snapshotVersion() {
+        Built<T> built = current.get();
+        return built == null ? null : built.version();
+    }
+
+    long rebuilds() {
+        return rebuilds.get();
+    }
+
+    long lastRebuildMillis() {
+        return lastRebuildMillis.get();
+    }
+
+    private boolean isFresh(Built<T> built) {
+        return built.version() == version.get()
+                && (maxAgeNanos == 0 || System.nanoTime() - built.builtAt() < maxAgeNanos);
+    }
+
+    private T rebuild() {
+        // 락을 기다리는 사이 다른 스레드가 이미 만들었을 수 있음
+        Built<T> built = current.get();
+        if (built != null && isFresh(built)) {
+            return built.value();
+        }
+
+        // 만들기 전에 읽은 version으로 만든다. 만드는 중에 커밋된 변경은 version이 올라가 있으므로 다음 조회 때 다시 만든다.
+        long target = version.get();
+        long start = System.nanoTime();
+        built = new Built<>(target, start, loader.apply(target));
+        current.set(built);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        rebuilds.incrementAndGet();
+        lastRebuildMillis.set(elapsedMillis);
+        log.debug("{} rebuilt: version={}, {}ms", name, target, elapsedMillis);
+        return built.value();
+    }
+}
@@ -0,0 +1,46 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired OrderApiController orderApiController;
+    @Autowired EntityManagerFactory emf;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 주문조회_2차캐시() throws Exception {
+
+        //given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        emf.getCache().evictAll();
+
+        //when
+        long first = countStatements(statistics);  // 상품(Item)을 DB에서 조회하고 2차 캐시에 저장
+        long second = countStatements(statistics); // 상품은 2차 캐시에서 가져옴
+
+        //then
+        assertTrue(second < first, "두 번째 조회는 2차 캐시 덕분에 실행되는 쿼리 수가 줄어야 한다. first=" + first + ", second=" + second);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0, "2차 캐시 hit가 있어야 한다.");
+    }
+
+    // 요청 1번 = 트랜잭션 1번(영속성 컨텍스트 1개)으로 보고 실행된 쿼리 수를 센다.
+    private long countStatements(Statistics statistics) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+
+        long before = statistics.getPrepareStatementCount();
+        tx.executeWithoutResult(status -> orderApiController.ordersV3_page(0, 100));
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import jpabook.jpashop.service.CategoryRollupService.CategoryRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CategoryServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired CategoryService categoryService;
+    @Autowired CategoryRollupService categoryRollupService;
+
+    @Test
+    public void 하위_트리_상품_조회_이동() throws Exception {
+
+        //given
+        // 도서 ─┬ IT ── 자바
+        //       └ 소설
+        Long book = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", book);
+        Long java = categoryService.create("자바", it);
+        Long novel = categoryService.create("소설", book);
+        Long javaBook = addBook(java, "JPA 학습");
+        Long novelBook = addBook(novel, "소설책");
+
+        //when
+        List<Long> underBook = itemIds(categoryService.findItemsInSubtree(book, null, 10));
+        List<Long> underIt = itemIds(categoryService.findItemsInSubtree(it, null, 10));
+
+        // IT를 소설 밑으로 이동
+        categoryService.update(it, "IT", novel);
+        em.flush();
+        List<Long> underNovel = itemIds(categoryService.findItemsInSubtree(novel, null, 10));
+
+        //then
+        assertEquals(List.of(javaBook, novelBook), underBook);
+        assertEquals(List.of(javaBook), underIt);
+        assertEquals(List.of(javaBook, novelBook), underNovel, "이동한 하위 트리의 상품도 포함");
+        assertEquals(List.of(javaBook, novelBook), itemIds(categoryService.findItemsInSubtree(book, null, 10)));
+        assertEquals(List.of(novelBook), itemIds(categoryService.findItemsInSubtree(book, javaBook, 10)), "keyset 다음 페이지");
+    }
+
+    @Test
+    public void 하위_카테고리로_이동_예외() throws Exception {
+
+        //given
+        Long book = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", book);
+
+        //when, then
+        assertThrows(IllegalArgumentException.class, () -> categoryService.update(book, "도서", it));
+    }
+
+    @Test
+    public void 카테고리_집계() throws Exception {
+
+        //given
+        Long book = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", book);
+        Long novel = categoryService.create("소설", book);
+        Long javaBook = addBook(it, "JPA 학습", 20000, 10);
+        addBook(novel, "소설책", 8000, 5);
+        // 테스트 트랜잭션은 커밋되지 않으므로 커밋 후 이벤트를 직접 호출
+        categoryRollupService.onCategoryChanged(new CategoryChangedEvent(book));
+
+        //when
+        CategoryRollup rollup = categoryRollupService.find(book);
+        categoryRollupService.onStockChanged(new ItemStockChangedEvent(javaBook, -3)); // 주문으로 3개 감소
+
+        //then
+        assertEquals(2, rollup.itemCount());
+        assertEquals(15, rollup.totalStock());
+        assertEquals(8000, rollup.minPrice());
+        assertEquals(20000, rollup.maxPrice());
+        assertEquals(12, categoryRollupService.find(book).totalStock(), "재고 증감은 다시 계산하지 않고 반영");
+        assertEquals(7, categoryRollupService.find(it).totalStock());
+        assertEquals(5, categoryRollupService.find(novel).totalStock());
+    }
+
+    private Long addBook(Long categoryId, String name) {
+        return addBook(categoryId, name, 10000, 10);
+    }
+
+    private Long addBook(Long categoryId, String name, int price, int stockQuantity) {
+        Book item = new Book();
+        item.setName(name);
+        item.setPrice(price);
+        item.setStockQuantity(stockQuantity);
+        em.persist(item);
+        em.find(Category.class, categoryId).getItems().add(item);
+        em.flush();
+        return item.getId();
+    }
+
+    private static List<Long> itemIds(List<ItemQueryDto> items) {
+        return items.stream().map(ItemQueryDto::getId).toList();
+    }
+}
@@ -0,0 +1,50 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.CategoryRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeTest {
+
+    @Test
+    public void 트리_생성() throws Exception {
+
+        //given
+        // 1 ─┬ 2 ── 4
+        //    └ 3
+        // 5
+        // 6 <-> 7 (순환)
+        List<CategoryRow> rows = List.of(
+                new CategoryRow(1L, "도서", null),
+                new CategoryRow(2L, "IT", 1L),
+                new CategoryRow(3L, "소설", 1L),
+                new CategoryRow(4L, "자바", 2L),
+                new CategoryRow(5L, "음반", null),
+                new CategoryRow(6L, "a", 7L),
+                new CategoryRow(7L, "b", 6L));
+
+        //when
+        CategoryTree tree = CategoryTree.build(1, rows);
+
+        //then
+        assertEquals(5, tree.size());
+        assertEquals(2, tree.unreachable(), "순환하는 카테고리는 트리에서 제외");
+        assertFalse(tree.contains(6L));
+
+        int it = tree.indexOf(2L);
+        int java = tree.indexOf(4L);
+        assertEquals(2, tree.depth(java));
+        assertEquals("도서/IT/자바", tree.path(java));
+        assertEquals(it, tree.parent(java));
+
+        int book = tree.indexOf(1L);
+        assertArrayEquals(new int[]{it, tree.indexOf(3L)}, tree.children(book));
+        assertArrayEquals(new long[]{1L, 2L, 4L, 3L}, tree.subtreeIds(book), "하위 트리는 전위 순회 순서로 연속");
+        assertTrue(tree.isInSubtree(book, java));
+        assertFalse(tree.isInSubtree(it, tree.indexOf(5L)));
+        assertEquals(2, tree.roots().length);
+    }
+}
@@ -0,0 +1,39 @@
+package jpabook.jpashop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotItemOrderServiceTest {
+
+    @Test
+    public void 배치_트랜잭션중_timeout이면_커밋된_주문번호를_받는다() throws Exception {
+
+        //given
+        OrderService orderService = mock(OrderService.class);
+        when(orderService.orderHotItem(eq(1L), anyList())).thenAnswer(invocation -> {
+            Thread.sleep(500); // timeout(100ms)보다 오래 걸리는 트랜잭션
+            return List.of(OrderLineResult.ordered(0, 42L));
+        });
+        HotItemOrderService hotItemOrderService =
+                new HotItemOrderService(orderService, List.of(1L), 10, 10, Duration.ofMillis(100));
+        hotItemOrderService.init();
+
+        try {
+            //when
+            Long orderId = hotItemOrderService.order(7L, 1L, 1);
+
+            //then
+            assertEquals(42L, orderId, "writer가 이미 주문을 시작했으면 실패가 아니라 커밋된 주문번호를 받아야 한다.");
+        } finally {
+            hotItemOrderService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.item.query.ItemCatalogSearch;
+import jpabook.jpashop.repository.item.query.ItemCatalogSort;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class ItemCatalogServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired ItemCatalogService itemCatalogService;
+
+    @Test
+    public void 상품목록_종류_가격순() throws Exception {
+
+        //given
+        save(new Book(), "싼 책", 1000);
+        save(new Book(), "비싼 책", 90000);
+        save(new Album(), "음반", 50000);
+        em.flush();
+
+        ItemCatalogSearch search = new ItemCatalogSearch();
+        search.setDtype("B");
+        search.setSort(ItemCatalogSort.PRICE_DESC);
+        search.setSize(1000);
+
+        //when
+        Page<ItemQueryDto> page = itemCatalogService.findCatalog(search);
+
+        //then
+        assertTrue(page.getContent().stream().allMatch(i -> i.getDtype().equals("B")), "도서만 조회");
+        assertTrue(page.getContent().stream().noneMatch(i -> i.getName().equals("음반")));
+        for (int i = 1; i < page.getContent().size(); i++) {
+            assertTrue(page.getContent().get(i - 1).getPrice() >= page.getContent().get(i).getPrice(), "높은 가격순");
+        }
+    }
+
+    @Test
+    public void 상품목록_이름_앞부분_검색() throws Exception {
+
+        //given
+        save(new Book(), "검색용_책1", 1000);
+        save(new Book(), "검색용_책2", 2000);
+        save(new Book(), "검색용X책3", 3000);
+        em.flush();
+
+        ItemCatalogSearch search = new ItemCatalogSearch();
+        search.setName("검색용_");
+        search.setSort(ItemCatalogSort.NAME);
+
+        //when
+        Page<ItemQueryDto> page = itemCatalogService.findCatalog(search);
+
+        //then
+        assertEquals(2, page.getTotalElements(), "_는 와일드카드가 아니라 문자로 비교");
+        assertEquals("검색용_책1", page.getContent().get(0).getName());
+    }
+
+    @Test
+    public void 재고가_바뀌면_목록_version_증가() throws Exception {
+
+        //given
+        long before = itemCatalogService.version();
+
+        //when
+        // 테스트 트랜잭션은 커밋되지 않으므로 커밋 후 이벤트를 직접 호출
+        itemCatalogService.onStockChanged(new ItemStockChangedEvent(1L, -1));
+
+        //then
+        assertTrue(itemCatalogService.version() > before, "ETag가 바뀌어야 한다.");
+    }
+
+    private void save(Item item, String name, int price) {
+        item.setName(name);
+        item.setPrice(price);
+        item.setStockQuantity(10);
+        em.persist(item);
+    }
+}
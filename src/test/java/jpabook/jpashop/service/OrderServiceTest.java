@@ -1,5 +1,8 @@
 package jpabook.jpashop.service;
 
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.Exception.NotEnoughStockException;
 import jpabook.jpashop.domain.Address;
@@ -9,11 +12,23 @@ import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -23,7 +38,10 @@ class OrderServiceTest {
     @Autowired EntityManager em;
     @Autowired OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired StatementCounter statementCounter;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    int batchSize;
 
     @Test
     public void 상품주문() throws Exception {
@@ -85,12 +103,108 @@ class OrderServiceTest {
         assertEquals(10, item.getStockQuantity(), "주문 취소된 상품은 그 만큼 재고가 증가해야 한다.");
     }
 
+    @Test
+    public void 여러상품주문() throws Exception {
+
+        //given
+        Member member = createMember();
+        Item book1 = createBook("JPA 1", 10000, 10);
+        Item book2 = createBook("JPA 2", 20000, 10);
+
+        //when
+        Long orderId = orderService.orderItems(member.getId(), Map.of(book2.getId(), 3, book1.getId(), 2));
+
+        //then
+        Order getOrder = orderRepository.findOne(orderId);
+        assertEquals(2, getOrder.getOrderItems().size(), "주문상품은 상품 수만큼 만들어져야 한다.");
+        assertEquals(10000 * 2 + 20000 * 3, getOrder.getTotalPrice());
+        assertEquals(8, book1.getStockQuantity());
+        assertEquals(7, book2.getStockQuantity());
+    }
+
+    @Test
+    public void 여러상품주문_하나라도_재고부족이면_전체실패() throws Exception {
+
+        //given
+        Member member = createMember();
+        Item book1 = createBook("JPA 1", 10000, 10);
+        Item book2 = createBook("JPA 2", 20000, 1);
+
+        //When, Then
+        assertThrows(
+                NotEnoughStockException.class,
+                () -> orderService.orderItems(member.getId(), Map.of(book1.getId(), 2, book2.getId(), 3)));
+    }
+
+    @Test
+    public void 주문_batch_insert() throws Exception {
+
+        //given
+        Member member = createMember();
+        Item item = createBook("JPA 학습", 10000, 10000);
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        statementCounter.reset();
+
+        //when
+        int orderCount = 1000;
+        for (int i = 0; i < orderCount; i++) {
+            orderService.order(member.getId(), item.getId(), 1);
+        }
+        em.flush();
+
+        //then
+        // Hibernate가 실행한 쿼리만 센다: 주문 1건 = 시퀀스 3번 + insert 4번(배송, 주문, 주문상품, 요약)이던 것이
+        // 엔티티마다 (orderCount / batch_size) 번의 시퀀스 호출과 batch insert로 줄어야 한다.
+        // (재고 감소 update는 ItemRepository가 JDBC로 직접 실행하므로 이 통계에 잡히지 않는다.)
+        long hibernateStatements = statistics.getPrepareStatementCount() - before;
+        assertTrue(hibernateStatements < 100, "Hibernate가 실행하는 주문 생성 쿼리는 batch로 묶여야 한다.");
+
+        // 테이블마다 insert 실행(batch 1번 = 1번)은 ceil(orderCount / batch_size)번 이하
+        int maxInserts = (orderCount + batchSize - 1) / batchSize;
+        for (String table : List.of("delivery", "orders", "order_item", "order_summary")) {
+            assertTrue(statementCounter.inserts(table) <= maxInserts,
+                    table + " insert " + statementCounter.inserts(table) + "번 (최대 " + maxInserts + "번)");
+        }
+        // 단건 주문은 재고 조건부 update가 주문마다 1번씩 그대로 나간다. (batch 대상 아님)
+        assertEquals(orderCount, statementCounter.updates("item"));
+    }
+
+    @Test
+    public void 대량주문_재고부족_줄만_실패() throws Exception {
+
+        //given
+        Member member = createMember();
+        Item item = createBook("JPA 학습", 10000, 10);
+
+        List<OrderLine> lines = List.of(
+                new OrderLine(member.getId(), item.getId(), 4),
+                new OrderLine(member.getId(), item.getId(), 7), // 남은 재고 6개 -> 실패
+                new OrderLine(member.getId(), item.getId(), 6),
+                new OrderLine(member.getId(), -1L, 1));
+
+        //when
+        List<OrderLineResult> results = orderService.orderBatch(lines);
+
+        //then
+        assertEquals(OrderLineResult.Status.ORDERED, results.get(0).getStatus());
+        assertEquals(OrderLineResult.Status.NOT_ENOUGH_STOCK, results.get(1).getStatus());
+        assertEquals(OrderLineResult.Status.ORDERED, results.get(2).getStatus());
+        assertEquals(OrderLineResult.Status.ITEM_NOT_FOUND, results.get(3).getStatus());
+        assertEquals(0, item.getStockQuantity(), "성공한 줄의 수량만큼만 재고가 줄어야 한다.");
+        assertNotNull(orderRepository.findOne(results.get(2).getOrderId()));
+    }
+
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
         book.setName(name);
         book.setPrice(price); // 커맨드 + 옵션 + P (Mac), CTRL + ALT + P (Win)으로 파라미터로 바로 올릴 수 있음.
         book.setStockQuantity(stockQuantity);
         em.persist(book);
+        em.flush(); // 재고는 DB에서 update 하므로 상품이 먼저 insert 되어 있어야 함
         return book;
     }
 
@@ -102,4 +216,58 @@ class OrderServiceTest {
         return member;
     }
 
-}
\ No newline at end of file
+
+    @TestConfiguration
+    static class StatementCounterConfig {
+
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    /**
+     * 테이블별 insert/update 실행 횟수 (p6spy starter가 JdbcEventListener 빈을 등록해 준다)
+     * Hibernate를 거치지 않는 JDBC 쿼리도 센다. batch는 executeBatch 한 번을 1번으로 센다.
+     */
+    static class StatementCounter extends JdbcEventListener {
+
+        private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        @Override
+        public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+            record(statementInformation.getSql());
+        }
+
+        @Override
+        public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+            record(statementInformation.getSql());
+        }
+
+        void reset() {
+            counts.clear();
+        }
+
+        int inserts(String table) {
+            return count("insert " + table);
+        }
+
+        int updates(String table) {
+            return count("update " + table);
+        }
+
+        private int count(String key) {
+            AtomicInteger count = counts.get(key);
+            return count == null ? 0 : count.get();
+        }
+
+        private void record(String sql) {
+            String[] tokens = sql.trim().toLowerCase(Locale.ROOT).split("[\\s(]+", 4);
+            if (tokens.length >= 3 && tokens[0].equals("insert") && tokens[1].equals("into")) {
+                counts.computeIfAbsent("insert " + tokens[2], k -> new AtomicInteger()).incrementAndGet();
+            } else if (tokens.length >= 2 && tokens[0].equals("update")) {
+                counts.computeIfAbsent("update " + tokens[1], k -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+    }
+}
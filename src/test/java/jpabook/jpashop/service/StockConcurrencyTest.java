@@ -0,0 +1,116 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.Exception.NotEnoughStockException;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 여러 스레드가 각자 트랜잭션으로 커밋해야 하므로 @Transactional을 붙이지 않음
+@SpringBootTest
+class StockConcurrencyTest {
+
+    private static final int STOCK = 1000;
+    private static final int THREADS = 64;
+    private static final int ORDERS_PER_THREAD = 20; // 총 1280건 주문 시도 -> 1000건만 성공해야 함
+
+    @Autowired OrderService orderService;
+    @Autowired HotItemOrderService hotItemOrderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+
+        //given
+        Long memberId = createMember();
+        Long itemId = createBook();
+
+        //when
+        int ordered = orderConcurrently(() -> orderService.order(memberId, itemId, 1));
+
+        //then
+        assertEquals(STOCK, ordered, "재고만큼만 주문되어야 한다.");
+        assertEquals(0, itemService.findOne(itemId).getStockQuantity(), "재고가 음수가 되거나 남으면 안 된다.");
+    }
+
+    @Test
+    public void 인기상품_동시주문_초과판매_없음() throws Exception {
+
+        //given
+        Long memberId = createMember();
+        Long itemId = createBook();
+        hotItemOrderService.enable(itemId);
+
+        //when
+        int ordered;
+        try {
+            ordered = orderConcurrently(() -> hotItemOrderService.order(memberId, itemId, 1));
+        } finally {
+            hotItemOrderService.disable(itemId);
+        }
+
+        //then
+        assertEquals(STOCK, ordered, "재고만큼만 주문되어야 한다.");
+        assertEquals(0, itemService.findOne(itemId).getStockQuantity(), "재고가 음수가 되거나 남으면 안 된다.");
+    }
+
+    // THREADS개 스레드가 동시에 ORDERS_PER_THREAD번씩 주문, 성공한 주문 수를 돌려준다.
+    private int orderConcurrently(Runnable order) throws Exception {
+        AtomicInteger ordered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        order.run();
+                        ordered.incrementAndGet();
+                    } catch (NotEnoughStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * ORDERS_PER_THREAD, ordered.get() + rejected.get());
+        return ordered.get();
+    }
+
+    private Long createMember() {
+        Member member = new Member();
+        member.setName("동시주문" + System.nanoTime()); // 회원 이름은 unique
+        member.setAddress(new Address("서울", "어딘가", "123123"));
+        return memberService.join(member);
+    }
+
+    private Long createBook() {
+        Book book = new Book();
+        book.setName("인기 상품");
+        book.setPrice(10000);
+        book.setStockQuantity(STOCK);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}